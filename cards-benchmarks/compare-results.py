@@ -0,0 +1,53 @@
+#!/usr/bin/env python3
+"""Compares two JMH JSON result files and flags regressions above a threshold.
+
+usage: compare-results.py BASELINE.json CURRENT.json [--threshold PERCENT]
+
+Exits with status 1 when at least one benchmark regressed by more than the threshold (10% by default).
+"""
+import argparse
+import json
+import sys
+
+# Modes where a lower score is better; throughput ("thrpt") is the only one where higher is better.
+LOWER_IS_BETTER = {"avgt", "sample", "ss"}
+
+
+def load(path):
+    with open(path) as results:
+        return {key(result): result for result in json.load(results)}
+
+
+def key(result):
+    params = ",".join(f"{name}={value}" for name, value in sorted(result.get("params", {}).items()))
+    return f"{result['benchmark']}({params})" if params else result["benchmark"]
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0, help="regression threshold in percent")
+    args = parser.parse_args()
+
+    baseline, current = load(args.baseline), load(args.current)
+    regressions = 0
+    print(f"{'benchmark':<90} {'baseline':>12} {'current':>12} {'change':>9}")
+    for name in sorted(current):
+        if name not in baseline:
+            print(f"{name:<90} {'-':>12} {current[name]['primaryMetric']['score']:>12.3f} {'new':>9}")
+            continue
+        before = baseline[name]["primaryMetric"]["score"]
+        after = current[name]["primaryMetric"]["score"]
+        unit = current[name]["primaryMetric"]["scoreUnit"]
+        change = (after - before) / before * 100 if before else 0.0
+        worse = change if current[name]["mode"] in LOWER_IS_BETTER else -change
+        flag = "  REGRESSION" if worse > args.threshold else ""
+        regressions += bool(flag)
+        print(f"{name:<90} {before:>12.3f} {after:>12.3f} {change:>+8.1f}% {unit}{flag}")
+    print(f"\n{regressions} regression(s) above {args.threshold}%")
+    return 1 if regressions else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
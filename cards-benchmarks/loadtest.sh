@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Compares variants of the cards service under load, by default the platform and virtual thread execution modes under
+# 1k-10k concurrent clients. The service runs from the benchmarks uber jar against an in memory H2 database (profile
+# loadtest), add the loadtest-mysql profile to the variants to target the MySQL container instead.
+#
+# usage: JAVA_HOME=<jdk 21> cards-benchmarks/loadtest.sh [scenario] [clients] [duration]
+#   e.g. cards-benchmarks/loadtest.sh read 1000,2500,5000,10000 PT30S
+#   VARIANTS="<label>=<profiles> ..." replaces the compared variants, e.g. the connection pool configurations:
+#   VARIANTS="defaults=loadtest,loadtest-mysql,pool-defaults tuned=loadtest,loadtest-mysql" cards-benchmarks/loadtest.sh search 50,200,500
+# Raise the open files limit first (ulimit -n 65535): every client holds a connection.
+set -euo pipefail
+
+cd "$(dirname "$0")"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+JAR=target/benchmarks.jar
+SCENARIO="${1:-read}"
+CLIENTS="${2:-1000,2500,5000,10000}"
+DURATION="${3:-PT30S}"
+PORT="${PORT:-8081}"
+OUTPUT="${OUTPUT:-target/loadtest-$SCENARIO.csv}"
+VARIANTS="${VARIANTS:-platform=loadtest virtual=loadtest,virtual}"
+
+rm -f "$OUTPUT"
+for variant in $VARIANTS; do
+  label="${variant%%=*}"
+  profiles="${variant#*=}"
+  "$JAVA" -cp "$JAR" com.logicea.cards.CardsApplication --spring.profiles.active="$profiles" \
+    --server.port="$PORT" ${SERVICE_ARGS:-} > "target/loadtest-service-$label.log" 2>&1 &
+  service=$!
+  trap 'kill $service 2>/dev/null || true' EXIT
+  until curl -s -o /dev/null "http://localhost:$PORT/api/open/auth/authenticate"; do
+    kill -0 $service || { echo "service failed to start, see target/loadtest-service-$label.log"; exit 1; }
+    sleep 1
+  done
+  "$JAVA" -cp "$JAR" com.logicea.cards.loadtest.LoadTestRunner --base-url="http://localhost:$PORT" \
+    --label="$label" --scenario="$SCENARIO" --clients="$CLIENTS" --duration="$DURATION" --output="$OUTPUT"
+  kill $service
+  wait $service 2>/dev/null || true
+done
+echo "Results written to $OUTPUT"
@@ -0,0 +1,68 @@
+package com.logicea.cards.benchmarks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.logicea.cards.models.Card;
+import com.logicea.cards.models.CardView;
+import com.logicea.cards.models.Role;
+import com.logicea.cards.models.Status;
+import com.logicea.cards.models.User;
+import com.logicea.cards.services.JwtKeyRing;
+import com.logicea.cards.services.JwtService;
+
+/**
+ * Shared test data of the benchmarks.
+ */
+final class BenchmarkFixtures {
+    private BenchmarkFixtures() {
+    }
+
+    static User user() {
+        return User.builder()
+                .id(1)
+                .firstname("Jane")
+                .lastname("Doe")
+                .email("jane.doe@cards.com")
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z2gDvBLPd6p6aE0y1RzHzKIa")
+                .role(Role.MEMBER)
+                .build();
+    }
+
+    static JwtService jwtService() {
+        JwtKeyRing keyRing = new JwtKeyRing("default=4f1feeca525de4cdb064656007da3edac7895a87ff0ea865693300fb8b6e8f9c", "default", "");
+        return new JwtService(keyRing, Duration.ofMinutes(24));
+    }
+
+    static Card card(int id) {
+        return Card.builder()
+                .id(id)
+                .name("Card " + id)
+                .description("Description of card " + id)
+                .color("#A1B2C3")
+                .status(Status.values()[id % Status.values().length])
+                .creationDate(LocalDateTime.of(2023, 8, 1, 12, 30).plusMinutes(id))
+                .user(user())
+                .build();
+    }
+
+    static List<Card> cards(int count) {
+        List<Card> cards = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            cards.add(card(i));
+        }
+        return cards;
+    }
+
+    static List<CardView> views(int count) {
+        List<CardView> views = new ArrayList<>(count);
+        for (Card card : cards(count)) {
+            views.add(new CardView(card.getId(), card.getName(), card.getDescription(), card.getColor(),
+                    card.getCreationDate().plusNanos(card.getId() * 1_000_000L), card.getStatus(), card.getUser().getId(),
+                    0L, null));
+        }
+        return views;
+    }
+}
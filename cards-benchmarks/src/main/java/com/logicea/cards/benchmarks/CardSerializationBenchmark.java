@@ -0,0 +1,104 @@
+package com.logicea.cards.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.logicea.cards.configs.CardJsonModule;
+import com.logicea.cards.models.Card;
+import com.logicea.cards.models.CardView;
+import com.logicea.cards.responses.CardSearchResp;
+
+/**
+ * Jackson serialization cost of the card responses, with an ObjectMapper configured the way Spring Boot does, with
+ * the bean serializers ({@code bean}) or the hand-written ones of {@link CardJsonModule} ({@code module}).
+ * The search page is written as the {@link PageImpl} the search used to return ({@code page}) and as the
+ * {@link CardSearchResp} it returns now ({@code searchResp}); the size in bytes of both is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardSerializationBenchmark {
+    @Param({"bean", "module"})
+    private String serializers;
+
+    private ObjectMapper objectMapper;
+    private Card card;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = objectMapper(serializers);
+        card = BenchmarkFixtures.card(1);
+        List<CardView> views = BenchmarkFixtures.views(10);
+        if (!Arrays.equals(objectMapper(serializers).writeValueAsBytes(views), objectMapper("bean").writeValueAsBytes(views))) {
+            throw new IllegalStateException("The " + serializers + " serializers do not write the JSON of the bean serializers");
+        }
+    }
+
+    @Benchmark
+    public byte[] card() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(card);
+    }
+
+    @Benchmark
+    public byte[] page(PageState state) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(state.page);
+    }
+
+    @Benchmark
+    public byte[] searchResp(PageState state) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(state.searchResp);
+    }
+
+    private static ObjectMapper objectMapper(String serializers) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+        if ("module".equals(serializers)) {
+            builder.modulesToInstall(new CardJsonModule());
+        }
+        return builder.build();
+    }
+
+    /**
+     * A page of cards, as returned by the offset search.
+     */
+    @State(Scope.Benchmark)
+    public static class PageState {
+        @Param({"10", "100"})
+        private int pageSize;
+
+        private Page<CardView> page;
+        private CardSearchResp searchResp;
+
+        @Setup
+        public void setUp() throws JsonProcessingException {
+            page = new PageImpl<>(BenchmarkFixtures.views(pageSize), PageRequest.of(3, pageSize), 10_000);
+            searchResp = CardSearchResp.of(page, page.getTotalElements());
+            ObjectMapper objectMapper = objectMapper("module");
+            System.out.printf("%nBytes per page of %d cards: page %d, searchResp %d%n", pageSize,
+                    objectMapper.writeValueAsBytes(page).length, objectMapper.writeValueAsBytes(searchResp).length);
+        }
+    }
+}
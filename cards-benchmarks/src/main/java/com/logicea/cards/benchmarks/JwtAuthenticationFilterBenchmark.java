@@ -0,0 +1,76 @@
+package com.logicea.cards.benchmarks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.logicea.cards.configs.JwtAuthenticationFilter;
+import com.logicea.cards.models.User;
+import com.logicea.cards.services.JwtService;
+import com.logicea.cards.services.TokenVersionRegistry;
+import com.logicea.cards.services.VerifiedTokenCache;
+
+import jakarta.servlet.ServletException;
+
+/**
+ * Per request cost of {@link JwtAuthenticationFilter} against a mock filter chain, with the token either already in
+ * the verified token cache (hot) or verified from scratch (cold). Neither path touches the database, the principal is
+ * built from the claims of the token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+    @Param({"hot", "cold"})
+    private String cache;
+
+    private JwtAuthenticationFilter filter;
+    private VerifiedTokenCache verifiedTokenCache;
+    private User user;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = BenchmarkFixtures.jwtService();
+        user = BenchmarkFixtures.user();
+        verifiedTokenCache = new VerifiedTokenCache(jwtService, new TokenVersionRegistry(null), 10_000, Duration.ofMinutes(5));
+        filter = new JwtAuthenticationFilter(verifiedTokenCache, Jackson2ObjectMapperBuilder.json().build());
+        authorization = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public int doFilterInternal() throws ServletException, IOException {
+        if ("cold".equals(cache)) {
+            verifiedTokenCache.invalidate(user.getId());
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/private/cards/1");
+        request.addHeader("Authorization", authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
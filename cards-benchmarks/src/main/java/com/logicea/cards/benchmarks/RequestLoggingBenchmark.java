@@ -0,0 +1,138 @@
+package com.logicea.cards.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.logicea.cards.configs.RequestLoggingFilter;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import jakarta.servlet.ServletException;
+import net.logstash.logback.appender.LoggingEventAsyncDisruptorAppender;
+import net.logstash.logback.encoder.LogstashEncoder;
+
+/**
+ * Latency distribution of a request through {@link RequestLoggingFilter} with the request event off, written
+ * synchronously to a file as the default configuration does, or published to the ring buffer of the
+ * {@code async-logging} profile and written as JSON by its background thread. Every request is logged (no sampling),
+ * from several threads, so the p99 shows the time request threads spend waiting on the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RequestLoggingBenchmark {
+    @Param({"off", "sync", "async"})
+    private String logging;
+
+    private RequestLoggingFilter filter;
+    private Path logFile;
+    private Appender<ILoggingEvent> appender;
+
+    @Setup
+    public void setUp() throws IOException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logger = context.getLogger("cards.requests");
+        logger.setAdditive(false);
+        logger.detachAndStopAllAppenders();
+        logFile = Files.createTempFile("cards-requests", ".log");
+        switch (logging) {
+            case "sync" -> {
+                PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+                encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m%n");
+                appender = fileAppender(context, encoder, true);
+            }
+            case "async" -> {
+                LoggingEventAsyncDisruptorAppender async = new LoggingEventAsyncDisruptorAppender();
+                async.setContext(context);
+                async.setRingBufferSize(8192);
+                async.setAppendTimeout(ch.qos.logback.core.util.Duration.buildByMilliseconds(0));
+                async.addAppender(fileAppender(context, new LogstashEncoder(), false));
+                async.start();
+                appender = async;
+            }
+            default -> appender = null;
+        }
+        if (appender == null) {
+            logger.setLevel(ch.qos.logback.classic.Level.OFF);
+        } else {
+            logger.setLevel(ch.qos.logback.classic.Level.INFO);
+            logger.addAppender(appender);
+        }
+        filter = new RequestLoggingFilter(1.0, Duration.ofSeconds(1));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (appender != null) {
+            appender.stop();
+        }
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public int request(RequestState state) throws ServletException, IOException {
+        filter.doFilter(state.request, state.response, new MockFilterChain());
+        return state.response.getStatus();
+    }
+
+    private Appender<ILoggingEvent> fileAppender(LoggerContext context, Encoder<ILoggingEvent> encoder, boolean immediateFlush) {
+        encoder.setContext(context);
+        encoder.start();
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(logFile.toString());
+        fileAppender.setEncoder(encoder);
+        fileAppender.setImmediateFlush(immediateFlush);
+        fileAppender.start();
+        return fileAppender;
+    }
+
+    /**
+     * Request of one benchmark thread, reused across invocations.
+     */
+    @State(Scope.Thread)
+    public static class RequestState {
+        private MockHttpServletRequest request;
+        private MockHttpServletResponse response;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            request = new MockHttpServletRequest("GET", "/api/private/cards/1");
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/private/cards/{cardId}");
+            request.setAttribute(RequestLoggingFilter.USER_ID_ATTRIBUTE, 1);
+            response = new MockHttpServletResponse();
+        }
+    }
+}
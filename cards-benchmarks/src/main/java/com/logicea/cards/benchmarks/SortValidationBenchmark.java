@@ -0,0 +1,56 @@
+package com.logicea.cards.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+
+import com.logicea.cards.models.Card;
+import com.logicea.cards.requests.SortByDTO;
+import com.logicea.cards.utils.EntityUtils;
+
+/**
+ * Cost of validating the sort of a search request with {@link EntityUtils#validateAndGroupAllSorts}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SortValidationBenchmark {
+    private static final String[] COLUMNS = {"name", "creation_date", "status", "color", "description", "user_id", "id"};
+
+    @Param({"1", "2", "5", "10"})
+    private int sortKeys;
+
+    private List<SortByDTO> sortMap;
+
+    @Setup
+    public void setUp() {
+        sortMap = new ArrayList<>(sortKeys);
+        for (int i = 0; i < sortKeys; i++) {
+            SortByDTO sortBy = new SortByDTO();
+            sortBy.setFieldName(COLUMNS[i % COLUMNS.length]);
+            sortBy.setDirection(i % 2 == 0 ? "ASC" : "DESC");
+            sortMap.add(sortBy);
+        }
+    }
+
+    @Benchmark
+    public Sort validateAndGroupAllSorts() {
+        return EntityUtils.validateAndGroupAllSorts(sortMap, Card.class);
+    }
+}
@@ -0,0 +1,63 @@
+package com.logicea.cards.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram with a fixed resolution, enough to report percentiles of a load test.
+ */
+final class LatencyHistogram {
+    private static final long RESOLUTION_MICROS = 100;
+    private static final int BUCKETS = 100_000;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile long maxMicros;
+
+    void record(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        buckets.incrementAndGet((int) Math.min(BUCKETS - 1, micros / RESOLUTION_MICROS));
+        count.increment();
+        if (micros > maxMicros) {
+            maxMicros = micros;
+        }
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    double maxMillis() {
+        return maxMicros / 1000.0;
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 100.
+     * @return The latency at the given percentile, in milliseconds.
+     */
+    double percentileMillis(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return (i + 1) * RESOLUTION_MICROS / 1000.0;
+            }
+        }
+        return maxMillis();
+    }
+}
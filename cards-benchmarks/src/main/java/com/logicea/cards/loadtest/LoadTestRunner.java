@@ -0,0 +1,193 @@
+package com.logicea.cards.loadtest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Closed loop HTTP load generator for the cards service.
+ * Every simulated client sends its next request as soon as the previous one completes. Requests are sent
+ * asynchronously, so thousands of clients do not need thousands of threads in the generator.
+ * <p>
+ * Options, as {@code --name=value}:
+ * <ul>
+ *     <li>{@code base-url}: the service url, {@code http://localhost:8081} by default</li>
+ *     <li>{@code clients}: comma separated numbers of concurrent clients, {@code 1000,2500,5000,10000} by default</li>
+ *     <li>{@code duration}: the measured duration of each step, ISO-8601, {@code PT30S} by default</li>
+ *     <li>{@code warmup}: the unmeasured duration before each step, {@code PT10S} by default</li>
+ *     <li>{@code scenario}: {@code read} (GET of a card) or {@code search} (search of the first page), {@code read} by default</li>
+ *     <li>{@code email}, {@code password}: the user the clients authenticate as, the one seeded by the loadtest profile by default</li>
+ *     <li>{@code label}: the label of the run in the report, e.g. the execution mode of the service</li>
+ *     <li>{@code output}: a csv file the results are appended to</li>
+ * </ul>
+ */
+public final class LoadTestRunner {
+    private static final int CARDS = 200;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String scenario;
+    private String authorization;
+    private final List<Integer> cardIds = new ArrayList<>();
+
+    private LoadTestRunner(String baseUrl, String scenario) {
+        this.baseUrl = baseUrl;
+        this.scenario = scenario;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        LoadTestRunner runner = new LoadTestRunner(options.getOrDefault("base-url", "http://localhost:8081"),
+                options.getOrDefault("scenario", "read"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT30S"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT10S"));
+        String label = options.getOrDefault("label", "run");
+        int[] steps = Arrays.stream(options.getOrDefault("clients", "1000,2500,5000,10000").split(","))
+                .mapToInt(step -> Integer.parseInt(step.trim()))
+                .toArray();
+
+        runner.seed(options.getOrDefault("email", "loadtest@cards.com"), options.getOrDefault("password", "loadtest"));
+        System.out.printf("%-10s %-8s %8s %10s %10s %9s %9s %9s %9s %8s%n",
+                "label", "scenario", "clients", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors");
+        for (int clients : steps) {
+            runner.run(clients, warmup);
+            LatencyHistogram histogram = runner.run(clients, duration);
+            double throughput = histogram.count() / (duration.toMillis() / 1000.0);
+            String row = String.format("%-10s %-8s %8d %10d %10.0f %9.2f %9.2f %9.2f %9.2f %8d",
+                    label, runner.scenario, clients, histogram.count(), throughput, histogram.percentileMillis(50),
+                    histogram.percentileMillis(95), histogram.percentileMillis(99), histogram.maxMillis(), histogram.errors());
+            System.out.println(row);
+            if (options.containsKey("output")) {
+                appendCsv(Path.of(options.get("output")), label, runner.scenario, clients, histogram, throughput);
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Authenticates the given user and creates the cards the clients read.
+     */
+    private void seed(String email, String password) throws IOException, InterruptedException {
+        String credentials = MAPPER.writeValueAsString(Map.of("email", email, "password", password));
+        JsonNode token = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/open/auth/authenticate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials)));
+        authorization = "Bearer " + token.get("access_token").asText();
+        for (int i = 0; i < CARDS; i++) {
+            String card = MAPPER.writeValueAsString(Map.of("name", "Card " + i, "color", "#A1B2C3"));
+            JsonNode created = send(authorized("/api/private/cards")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(card)));
+            cardIds.add(created.get("id").asInt());
+        }
+    }
+
+    /**
+     * Runs the given number of closed loop clients for the given duration.
+     */
+    private LatencyHistogram run(int clients, Duration duration) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<CompletableFuture<Void>> loops = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            loops.add(loop(histogram, deadline));
+        }
+        CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).join();
+        return histogram;
+    }
+
+    private CompletableFuture<Void> loop(LatencyHistogram histogram, long deadline) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        return httpClient.sendAsync(nextRequest(), HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error == null && response.statusCode() < 400) {
+                        histogram.record(System.nanoTime() - start);
+                    } else {
+                        histogram.recordError();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(histogram, deadline));
+    }
+
+    private HttpRequest nextRequest() {
+        if ("search".equals(scenario)) {
+            return authorized("/api/private/cards/search")
+                    .header("Content-Type", "application/json")
+                    .method("GET", HttpRequest.BodyPublishers.ofString("{\"page\":0,\"size\":10}"))
+                    .build();
+        }
+        int cardId = cardIds.get(ThreadLocalRandom.current().nextInt(cardIds.size()));
+        return authorized("/api/private/cards/" + cardId).GET().build();
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Authorization", authorization);
+    }
+
+    private JsonNode send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+        }
+        return MAPPER.readTree(response.body());
+    }
+
+    private static void appendCsv(Path output, String label, String scenario, int clients,
+                                  LatencyHistogram histogram, double throughput) {
+        try {
+            boolean header = Files.notExists(output);
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+                if (header) {
+                    writer.println("label,scenario,clients,requests,throughput,p50_ms,p95_ms,p99_ms,max_ms,errors");
+                }
+                writer.printf("%s,%s,%d,%d,%.0f,%.2f,%.2f,%.2f,%.2f,%d%n", label, scenario, clients, histogram.count(),
+                        throughput, histogram.percentileMillis(50), histogram.percentileMillis(95),
+                        histogram.percentileMillis(99), histogram.maxMillis(), histogram.errors());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
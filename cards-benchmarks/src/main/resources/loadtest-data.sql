@@ -0,0 +1,3 @@
+-- Load test user, password: loadtest
+INSERT INTO _user (id, firstname, lastname, email, password, role)
+VALUES (1, 'Load', 'Test', 'loadtest@cards.com', '$2a$10$LxwvTkey4lIi5x0r6WThqeDfY3bD.pw5FoK1Aa4ky2WhOQ1JFPAD6', 'MEMBER');
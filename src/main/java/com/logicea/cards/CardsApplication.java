@@ -2,8 +2,12 @@ package com.logicea.cards;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
 
-@SpringBootApplication
+/**
+ * Callers are authenticated by their JWT only, so the in memory user Spring Boot would otherwise create is excluded.
+ */
+@SpringBootApplication(exclude = UserDetailsServiceAutoConfiguration.class)
 public class CardsApplication {
 
 	public static void main(String[] args) {
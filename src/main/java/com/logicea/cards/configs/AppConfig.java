@@ -1,18 +1,20 @@
 package com.logicea.cards.configs;
 
-import com.logicea.cards.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration class for application beans and security-related components.
@@ -22,53 +24,38 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Slf4j
 public class AppConfig {
 
-    private final UserRepository userRepository;
-
-    /**
-     * Creates a {@link UserDetailsService } bean responsible for loading user-specific data.
-     *
-     * @return A  {@link UserDetailsService } implementation that retrieves user information from the UserRepository based on email.
-     * @throws UsernameNotFoundException If the provided username (email) does not match any user in the UserRepository.
-     */
-    @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username).orElseThrow(() -> new UsernameNotFoundException("Invalid credentials"));
-    }
-
-    /**
-     * Creates an {@link AuthenticationProvider} bean responsible for user authentication.
-     *
-     * @return An {@link AuthenticationProvider} instance that uses the custom UserDetailsService to retrieve user details
-     * and a BCryptPasswordEncoder for password encoding.
-     */
-
-    @Bean
-    public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
-    }
+    private final MeterRegistry meterRegistry;
 
     /**
-     * Creates an {@link AuthenticationManager} bean responsible for handling authentication requests.
+     * Creates a PasswordEncoder bean responsible for encoding user passwords using BCrypt algorithm.
+     * Hashing runs on a dedicated executor, see {@link #passwordHashExecutor(int, int)}, and is timed by
+     * {@link TimedPasswordEncoder}. Hashes of a lower strength than the configured one report
+     * {@link PasswordEncoder#upgradeEncoding(String)}, so they are rehashed on the next login.
      *
-     * @param config An instance of {@link AuthenticationConfiguration } used to obtain the AuthenticationManager.
-     * @return An AuthenticationManager instance used for authenticating users.
-     * @throws Exception If there's an error creating the AuthenticationManager.
+     * @param strength      The log rounds of BCrypt.
+     * @param threads       The number of hashing threads, 0 for one per available processor.
+     * @param queueCapacity The number of hashes waiting for a thread before new ones are rejected.
+     * @return A {@link BCryptPasswordEncoder} instance for password encoding, bounded by {@link BoundedPasswordEncoder}.
      */
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
+    public PasswordEncoder passwordEncoder(@Value("${cards.password.bcrypt-strength:10}") int strength,
+                                           @Value("${cards.password.executor.threads:0}") int threads,
+                                           @Value("${cards.password.executor.queue-capacity:64}") int queueCapacity) {
+        return new BoundedPasswordEncoder(new TimedPasswordEncoder(new BCryptPasswordEncoder(strength), meterRegistry),
+                passwordHashExecutor(threads, queueCapacity));
     }
 
     /**
-     * Creates a PasswordEncoder bean responsible for encoding user passwords using BCrypt algorithm.
-     *
-     * @return A {@link BCryptPasswordEncoder} instance for password encoding.
+     * Creates the executor hashing and checking passwords: one thread per CPU by default, as BCrypt is CPU bound, and a
+     * bounded queue rejecting further work once full. Its queue depth, active threads and queueing time are published
+     * as the {@code executor.*} meters tagged {@code name=cards.password.hash}.
+     * It is deliberately not a bean, so it is never mistaken for the application task executor.
      */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    private ExecutorService passwordHashExecutor(int threads, int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "cards.password.hash");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.logicea.cards.configs;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.logicea.cards.models.AuthorizationContext;
+
+/**
+ * Resolves controller parameters of type {@link AuthorizationContext} from the principal already authenticated by
+ * {@link JwtAuthenticationFilter}, so no further lookup is needed to know the id and role of the caller.
+ */
+@Component
+public class AuthorizationContextArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthorizationContext.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public AuthorizationContext resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                                NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthorizationContext authContext)) {
+            throw new InsufficientAuthenticationException("No authenticated user found");
+        }
+        return authContext;
+    }
+}
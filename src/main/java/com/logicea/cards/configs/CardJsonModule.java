@@ -0,0 +1,132 @@
+package com.logicea.cards.configs;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.logicea.cards.models.Card;
+import com.logicea.cards.models.CardView;
+import com.logicea.cards.models.Status;
+
+/**
+ * Jackson module with hand-written serializers for {@link Card} and {@link CardView}, registered up front in the
+ * ObjectMapper of Spring Boot like any {@link com.fasterxml.jackson.databind.Module} bean.
+ * They write the same JSON as the bean serializers, field by field with pre-encoded names, instead of introspecting
+ * the class and going through reflective accessors and the {@link DateTimeFormatter} for every card.
+ */
+@Component
+public class CardJsonModule extends SimpleModule {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString COLOR = new SerializedString("color");
+    private static final SerializableString CREATION_DATE = new SerializedString("creationDate");
+    private static final SerializableString STATUS = new SerializedString("status");
+
+    public CardJsonModule() {
+        super("cards");
+        addSerializer(Card.class, new CardSerializer());
+        addSerializer(CardView.class, new CardViewSerializer());
+    }
+
+    /**
+     * Writes the public fields of a card, in the order of the entity.
+     */
+    private static void writeCard(Integer id, String name, String description, String color, LocalDateTime creationDate,
+                                  Status status, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(ID);
+        if (id == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(id);
+        }
+        gen.writeFieldName(NAME);
+        gen.writeString(name);
+        gen.writeFieldName(DESCRIPTION);
+        gen.writeString(description);
+        gen.writeFieldName(COLOR);
+        gen.writeString(color);
+        gen.writeFieldName(CREATION_DATE);
+        writeDateTime(creationDate, gen, provider);
+        gen.writeFieldName(STATUS);
+        gen.writeString(status == null ? null : status.name());
+        gen.writeEndObject();
+    }
+
+    /**
+     * Writes a date time as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} does, straight into a char buffer. Dates
+     * outside years 0 to 9999, and mappers writing dates as timestamps, keep the serializer of the mapper.
+     */
+    private static void writeDateTime(LocalDateTime dateTime, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (dateTime == null) {
+            gen.writeNull();
+            return;
+        }
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) || dateTime.getYear() < 0 || dateTime.getYear() > 9999) {
+            provider.defaultSerializeValue(dateTime, gen);
+            return;
+        }
+        char[] chars = new char[29];
+        int pos = digits(dateTime.getYear(), 4, chars, 0);
+        chars[pos++] = '-';
+        pos = digits(dateTime.getMonthValue(), 2, chars, pos);
+        chars[pos++] = '-';
+        pos = digits(dateTime.getDayOfMonth(), 2, chars, pos);
+        chars[pos++] = 'T';
+        pos = digits(dateTime.getHour(), 2, chars, pos);
+        chars[pos++] = ':';
+        pos = digits(dateTime.getMinute(), 2, chars, pos);
+        chars[pos++] = ':';
+        pos = digits(dateTime.getSecond(), 2, chars, pos);
+        if (dateTime.getNano() > 0) {
+            chars[pos++] = '.';
+            pos = digits(dateTime.getNano(), 9, chars, pos);
+            while (chars[pos - 1] == '0') {
+                pos--;
+            }
+        }
+        gen.writeString(chars, 0, pos);
+    }
+
+    private static int digits(int value, int width, char[] chars, int pos) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    private static final class CardSerializer extends StdSerializer<Card> {
+        private CardSerializer() {
+            super(Card.class);
+        }
+
+        @Override
+        public void serialize(Card card, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeCard(card.getId(), card.getName(), card.getDescription(), card.getColor(), card.getCreationDate(),
+                    card.getStatus(), gen, provider);
+        }
+    }
+
+    private static final class CardViewSerializer extends StdSerializer<CardView> {
+        private CardViewSerializer() {
+            super(CardView.class);
+        }
+
+        @Override
+        public void serialize(CardView card, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeCard(card.id(), card.name(), card.description(), card.color(), card.creationDate(), card.status(),
+                    gen, provider);
+        }
+    }
+}
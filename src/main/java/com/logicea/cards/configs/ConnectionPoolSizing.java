@@ -0,0 +1,44 @@
+package com.logicea.cards.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sizes the connection pools which are not given an explicit {@code spring.datasource.hikari.maximum-pool-size}.
+ * A database serves at most about two connections per core plus one per disk it waits on, more only queue inside it,
+ * and the application never needs more connections than requests it runs concurrently. So the pool gets
+ * {@code min(2 x cards.datasource.pool.database-cores + cards.datasource.pool.effective-spindles,
+ * cards.datasource.pool.expected-concurrency)} connections, kept open unless a {@code minimum-idle} is set.
+ */
+@Component
+@Slf4j
+public class ConnectionPoolSizing implements BeanPostProcessor {
+    private static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+    private final Environment environment;
+    private final int poolSize;
+
+    public ConnectionPoolSizing(Environment environment,
+                                @Value("${cards.datasource.pool.database-cores:0}") int databaseCores,
+                                @Value("${cards.datasource.pool.effective-spindles:1}") int effectiveSpindles,
+                                @Value("${cards.datasource.pool.expected-concurrency:200}") int expectedConcurrency) {
+        this.environment = environment;
+        int cores = databaseCores > 0 ? databaseCores : Runtime.getRuntime().availableProcessors();
+        this.poolSize = Math.max(1, Math.min(2 * cores + effectiveSpindles, expectedConcurrency));
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource && !environment.containsProperty(MAXIMUM_POOL_SIZE)) {
+            dataSource.setMaximumPoolSize(poolSize);
+            log.info("Connection pool {} sized to {} connections", dataSource.getPoolName(), poolSize);
+        }
+        return bean;
+    }
+}
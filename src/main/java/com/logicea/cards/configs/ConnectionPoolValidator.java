@@ -0,0 +1,63 @@
+package com.logicea.cards.configs;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Validates the connection pools once the context is built, before requests are served.
+ * Each pool opens its connections (failing startup after {@code initialization-fail-timeout} when the database cannot
+ * be reached) and, on MySQL, its {@code max-lifetime} must be shorter than the {@code wait_timeout} of the server:
+ * otherwise the pool hands out connections the server has already closed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConnectionPoolValidator implements SmartInitializingSingleton {
+    private final ObjectProvider<HikariDataSource> dataSources;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        dataSources.orderedStream().forEach(this::validate);
+    }
+
+    private void validate(HikariDataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(dataSource.getValidationTimeout())))) {
+                throw new IllegalStateException("Connection pool " + dataSource.getPoolName() + " opened an invalid connection");
+            }
+            if (connection.getMetaData().getDatabaseProductName().contains("MySQL")) {
+                long waitTimeoutMillis = TimeUnit.SECONDS.toMillis(waitTimeout(connection));
+                if (dataSource.getMaxLifetime() == 0 || dataSource.getMaxLifetime() >= waitTimeoutMillis) {
+                    throw new IllegalStateException(String.format(
+                            "spring.datasource.hikari.max-lifetime of pool %s (%d ms) must be shorter than the MySQL wait_timeout (%d ms)",
+                            dataSource.getPoolName(), dataSource.getMaxLifetime(), waitTimeoutMillis));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Connection pool " + dataSource.getPoolName() + " cannot reach the database", e);
+        }
+        log.info("Connection pool {} ready: {} connections, connection timeout {} ms, max lifetime {} ms, leak detection {} ms",
+                dataSource.getPoolName(), dataSource.getMaximumPoolSize(), dataSource.getConnectionTimeout(),
+                dataSource.getMaxLifetime(), dataSource.getLeakDetectionThreshold());
+    }
+
+    private static long waitTimeout(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT @@wait_timeout")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.logicea.cards.configs;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configuration class for the threads executing requests and {@code @Async} work.
+ * By default Tomcat and Spring use their platform thread pools. With {@code cards.execution.mode=virtual} (see the
+ * {@code virtual} profile) both run on virtual threads, which requires a Java 21 runtime.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class ExecutionConfig {
+
+    /**
+     * Virtual thread execution mode: one virtual thread per request and per {@code @Async} task, so requests blocked
+     * on JDBC no longer hold a platform thread and concurrency is bounded by the connection pool instead.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "cards.execution", name = "mode", havingValue = "virtual")
+    @Slf4j
+    static class VirtualThreadsConfig {
+
+        /**
+         * Creates the executor starting a new virtual thread per task.
+         * It is looked up reflectively, so the application still builds on the Java 17 toolchain.
+         *
+         * @return An {@link ExecutorService} starting a virtual thread per task.
+         * @throws IllegalStateException If the runtime does not support virtual threads.
+         */
+        @Bean(destroyMethod = "shutdown")
+        public ExecutorService virtualThreadExecutor() {
+            try {
+                ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                log.info("Requests and @Async tasks run on virtual threads");
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("cards.execution.mode=virtual requires Java 21 or later, running on "
+                        + Runtime.version(), e);
+            }
+        }
+
+        /**
+         * Makes Tomcat hand every request to a virtual thread.
+         *
+         * @param virtualThreadExecutor The virtual thread executor.
+         * @return A {@link TomcatProtocolHandlerCustomizer} replacing the executor of the protocol handler.
+         */
+        @Bean
+        public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+            return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+        }
+
+        /**
+         * Replaces the default {@code @Async} thread pool, which backs off when this bean exists.
+         *
+         * @param virtualThreadExecutor The virtual thread executor.
+         * @return An {@link AsyncTaskExecutor} running each task on its own virtual thread.
+         */
+        @Bean(name = "applicationTaskExecutor")
+        public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+            return new TaskExecutorAdapter(virtualThreadExecutor);
+        }
+
+        /**
+         * Reports virtual threads pinned to their carrier, e.g. by {@code synchronized} blocks of the JDBC driver.
+         *
+         * @param threshold The minimum pinning duration to report.
+         * @return The pinning monitor.
+         */
+        @Bean
+        @ConditionalOnProperty(prefix = "cards.execution.pinning-monitor", name = "enabled", havingValue = "true", matchIfMissing = true)
+        public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+                @Value("${cards.execution.pinning-monitor.threshold:PT0.02S}") Duration threshold) {
+            return new VirtualThreadPinningMonitor(threshold);
+        }
+    }
+}
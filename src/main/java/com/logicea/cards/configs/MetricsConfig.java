@@ -0,0 +1,41 @@
+package com.logicea.cards.configs;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuration class for the metrics which Spring Boot does not record on its own.
+ * Endpoints ({@code http.server.requests}), repository methods ({@code spring.data.repository.invocations}) and the
+ * connection pool ({@code hikaricp.connections.*}) are instrumented by Spring Boot; services are timed with
+ * {@link io.micrometer.core.annotation.Timed}, passwords by {@link TimedPasswordEncoder} and SQL statements are
+ * counted per request by {@link SqlStatementsFilter}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Creates the aspect timing the beans annotated with {@link io.micrometer.core.annotation.Timed}.
+     *
+     * @param meterRegistry The registry of the timers.
+     * @return The {@link TimedAspect}.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Registers the {@link SqlStatementCounter} in the session factory.
+     *
+     * @return A {@link HibernatePropertiesCustomizer} setting the statement inspector.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+}
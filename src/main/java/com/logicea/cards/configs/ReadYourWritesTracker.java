@@ -0,0 +1,58 @@
+package com.logicea.cards.configs;
+
+import java.time.Duration;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.logicea.cards.models.AuthorizationContext;
+
+/**
+ * Remembers the users who committed a write during the last {@code cards.datasource.replicas.sticky-window}, so their
+ * read only transactions keep going to the primary until the replicas have caught up with their own writes.
+ * Users are told apart by the {@link AuthorizationContext} of the current request; work done outside a request is
+ * never sticky. Writes are remembered per instance.
+ */
+public class ReadYourWritesTracker {
+    private final Cache<Integer, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration stickyWindow) {
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(stickyWindow).build();
+    }
+
+    /**
+     * Makes the current user sticky to the primary once the current transaction commits.
+     * Does nothing outside a transaction or a request.
+     */
+    public void recordWriteOnCommit() {
+        Integer userId = currentUserId();
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    /**
+     * @return true if the current user committed a write within the sticky window, false otherwise.
+     */
+    public boolean isSticky() {
+        Integer userId = currentUserId();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    private static Integer currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthorizationContext authContext
+                ? authContext.userId()
+                : null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.logicea.cards.configs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replica lag guard of the {@link ReplicaRoutingDataSource}.
+ * Every {@code cards.datasource.replicas.lag-check-interval} the current time is written to a heartbeat row of the
+ * primary, and the lag of each replica is the age of the heartbeat it has replicated. Replicas lagging more than
+ * {@code cards.datasource.replicas.max-lag}, or which cannot be read, stop serving read only transactions until they
+ * catch up. The measured lag includes up to one check interval, so the maximum lag must be larger than the interval.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    private static final String HEARTBEAT_TABLE = "_replica_heartbeat";
+
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> lagMillis = new LinkedHashMap<>();
+    private final ReplicaRoutingDataSource routing;
+    private final long maxLagMillis;
+    private List<String> caughtUp = List.of();
+
+    /**
+     * Creates the heartbeat table on the primary if it does not exist yet; replicas get it through replication.
+     *
+     * @param primary       The data source of the primary.
+     * @param routing       The routing data source whose replicas are monitored.
+     * @param maxLag        The maximum lag of a replica serving read only transactions.
+     * @param meterRegistry The registry of the {@code cards.datasource.replica.lag} gauges.
+     */
+    public ReplicaLagMonitor(DataSource primary, ReplicaRoutingDataSource routing, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.routing = routing;
+        this.maxLagMillis = maxLag.toMillis();
+        int timeoutSeconds = (int) Math.max(1, maxLag.toSeconds());
+        routing.replicas().forEach((name, dataSource) -> {
+            JdbcTemplate replica = new JdbcTemplate(dataSource);
+            replica.setQueryTimeout(timeoutSeconds);
+            replicas.put(name, replica);
+            AtomicLong lag = new AtomicLong(Long.MAX_VALUE);
+            lagMillis.put(name, lag);
+            Gauge.builder("cards.datasource.replica.lag", lag, value -> value.get() == Long.MAX_VALUE ? Double.NaN : value.get())
+                    .tag("replica", name).baseUnit("milliseconds")
+                    .description("Age of the heartbeat replicated by the replica, NaN when unknown")
+                    .register(meterRegistry);
+        });
+        this.primary.execute("CREATE TABLE IF NOT EXISTS " + HEARTBEAT_TABLE + " (id INT PRIMARY KEY, beat BIGINT NOT NULL)");
+    }
+
+    /**
+     * Writes the heartbeat to the primary and routes read only transactions to the replicas which are caught up.
+     */
+    @Scheduled(fixedDelayString = "${cards.datasource.replicas.lag-check-interval:PT1S}")
+    public synchronized void check() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update("UPDATE " + HEARTBEAT_TABLE + " SET beat = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO " + HEARTBEAT_TABLE + " (id, beat) VALUES (1, ?)", now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replica heartbeat to the primary: {}", e.getMessage());
+        }
+        List<String> current = new ArrayList<>(replicas.size());
+        replicas.forEach((name, replica) -> {
+            long lag = lag(name, replica, now);
+            lagMillis.get(name).set(lag);
+            if (lag <= maxLagMillis) {
+                current.add(name);
+            }
+        });
+        if (!current.equals(caughtUp)) {
+            log.info("Read only transactions routed to replicas {} of {}", current, replicas.keySet());
+            caughtUp = current;
+            routing.setCaughtUpReplicas(current);
+        }
+    }
+
+    /**
+     * @return The age of the heartbeat of the replica, or {@link Long#MAX_VALUE} if it has none or cannot be read.
+     */
+    private static long lag(String name, JdbcTemplate replica, long now) {
+        try {
+            List<Long> beats = replica.queryForList("SELECT beat FROM " + HEARTBEAT_TABLE + " WHERE id = 1", Long.class);
+            return beats.isEmpty() ? Long.MAX_VALUE : Math.max(0, now - beats.get(0));
+        } catch (DataAccessException e) {
+            log.warn("Could not read the heartbeat of replica {}: {}", name, e.getMessage());
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.logicea.cards.configs;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuration class for read replicas, enabled by {@code cards.datasource.replicas.enabled=true} (see the
+ * {@code replicas} profile). The primary keeps the {@code spring.datasource} settings and receives every read-write
+ * and non transactional statement, while read only transactions ({@code @Transactional(readOnly = true)}) are spread
+ * over the replicas of {@code cards.datasource.replicas.urls}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cards.datasource.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    /**
+     * Creates the pool of the primary, replacing the one of the auto-configuration which backs off.
+     *
+     * @param properties The {@code spring.datasource} properties.
+     * @return The pool of the primary, configured by {@code spring.datasource.hikari}.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Creates one pool per replica, with the driver properties, lifetimes and leak detection of the primary.
+     * Pools start even when their replica is down, it is then reported as lagging.
+     *
+     * @param urls               The comma separated JDBC urls of the replicas.
+     * @param username           The user of the replicas.
+     * @param password           The password of the replicas.
+     * @param driverClassName    The JDBC driver of the replicas.
+     * @param maximumPoolSize    The maximum number of connections of each replica pool.
+     * @param connectionTimeout  The maximum wait for a replica connection.
+     * @param stickyWindow       How long read only transactions of a user who has just written keep going to the primary.
+     * @param primaryDataSource  The pool of the primary.
+     * @param meterRegistry      The registry of the pool metrics.
+     * @return The data source routing between the primary and the replicas.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Value("${cards.datasource.replicas.urls}") String urls,
+                                                             @Value("${cards.datasource.replicas.username:${spring.datasource.username}}") String username,
+                                                             @Value("${cards.datasource.replicas.password:${spring.datasource.password}}") String password,
+                                                             @Value("${cards.datasource.replicas.driver-class-name:${spring.datasource.driver-class-name}}") String driverClassName,
+                                                             @Value("${cards.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+                                                             @Value("${cards.datasource.replicas.connection-timeout:PT1S}") Duration connectionTimeout,
+                                                             @Value("${cards.datasource.replicas.sticky-window:PT5S}") Duration stickyWindow,
+                                                             HikariDataSource primaryDataSource,
+                                                             MeterRegistry meterRegistry) {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        String[] replicaUrls = urls.split(",");
+        for (int i = 0; i < replicaUrls.length; i++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("cards-replica-" + (i + 1));
+            config.setJdbcUrl(replicaUrls[i].trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setDriverClassName(driverClassName);
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setReadOnly(true);
+            config.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            config.setMaxLifetime(primaryDataSource.getMaxLifetime());
+            config.setKeepaliveTime(primaryDataSource.getKeepaliveTime());
+            config.setLeakDetectionThreshold(primaryDataSource.getLeakDetectionThreshold());
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, new ReadYourWritesTracker(stickyWindow));
+    }
+
+    /**
+     * Defers the choice of the target until the first statement, once the transaction is flagged read only or not.
+     *
+     * @param replicaRoutingDataSource The data source routing between the primary and the replicas.
+     * @return The data source of the application.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * @param primaryDataSource        The pool of the primary.
+     * @param replicaRoutingDataSource The data source routing between the primary and the replicas.
+     * @param maxLag                   The maximum lag of a replica serving read only transactions.
+     * @param meterRegistry            The registry of the lag gauges.
+     * @return The replica lag guard.
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource,
+                                               ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               @Value("${cards.datasource.replicas.max-lag:PT3S}") Duration maxLag,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(primaryDataSource, replicaRoutingDataSource, maxLag, meterRegistry);
+    }
+}
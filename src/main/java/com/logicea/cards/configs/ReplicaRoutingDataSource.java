@@ -0,0 +1,101 @@
+package com.logicea.cards.configs;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Data source sending read only transactions to the read replicas and everything else to the primary.
+ * Replicas take turns, round robin, among the ones the {@link ReplicaLagMonitor} last found caught up. Read only
+ * transactions fall back to the primary when no replica is caught up, or when the current user has just written, see
+ * {@link ReadYourWritesTracker}, or when they run within {@link #onPrimary(Supplier)}.
+ * <p>
+ * The transaction manager opens its connection before the transaction is flagged read only, so this data source must
+ * be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which only picks the
+ * target connection at the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final Map<String, HikariDataSource> replicas;
+    private final ReadYourWritesTracker readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> caughtUpReplicas = List.of();
+
+    /**
+     * @param primary        The data source of the primary.
+     * @param replicas       The pools of the replicas by name, closed with this data source.
+     * @param readYourWrites The tracker of the users who have just written.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, HikariDataSource> replicas, ReadYourWritesTracker readYourWrites) {
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new LinkedHashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWrites.recordWriteOnCommit();
+            return PRIMARY;
+        }
+        List<String> candidates = caughtUpReplicas;
+        if (candidates.isEmpty() || PRIMARY_REQUIRED.get() != null || readYourWrites.isSticky()) {
+            return PRIMARY;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    /**
+     * Runs reads whose results outlive the request, such as the loading of a cache entry, on the primary: a lagging
+     * replica would otherwise hand out a stale or deleted row to every user until the entry expires. Does nothing
+     * more than running the reads when there are no replicas.
+     *
+     * @param reads The reads, opening their own read only transactions.
+     * @param <T>   The type of the result.
+     * @return The result of the reads.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (PRIMARY_REQUIRED.get() != null) {
+            return reads.get();
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    /**
+     * @return The pools of the replicas by name.
+     */
+    public Map<String, HikariDataSource> replicas() {
+        return replicas;
+    }
+
+    /**
+     * @param replicaNames The names of the replicas which may serve read only transactions.
+     */
+    void setCaughtUpReplicas(List<String> replicaNames) {
+        this.caughtUpReplicas = List.copyOf(replicaNames);
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,112 @@
+package com.logicea.cards.configs;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs one event per completed request on the {@code cards.requests} logger, with the endpoint, the id of the
+ * authenticated user, the latency and the status, as structured arguments which the JSON layout turns into fields.
+ * Successful requests are sampled with {@code cards.logging.requests.sample-rate}; server errors and requests slower
+ * than {@code cards.logging.requests.slow-threshold} are always logged. Streamed responses are logged when the stream
+ * completes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@Slf4j(topic = "cards.requests")
+public class RequestLoggingFilter extends OncePerRequestFilter {
+    /**
+     * Request attribute holding the id of the authenticated user, set by {@link JwtAuthenticationFilter}
+     */
+    public static final String USER_ID_ATTRIBUTE = RequestLoggingFilter.class.getName() + ".userId";
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public RequestLoggingFilter(@Value("${cards.logging.requests.sample-rate:1.0}") double sampleRate,
+                                @Value("${cards.logging.requests.slow-threshold:PT1S}") Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!log.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(start));
+            } else {
+                completed(request, response, start);
+            }
+        }
+    }
+
+    private void completed(HttpServletRequest request, HttpServletResponse response, long start) {
+        long latencyNanos = System.nanoTime() - start;
+        int status = response.getStatus();
+        if (status < 500 && latencyNanos < slowThresholdNanos
+                && (sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate))) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        log.info("Request completed {} {} {} {}",
+                kv("endpoint", request.getMethod() + " " + (pattern == null ? request.getRequestURI() : pattern)),
+                kv("userId", request.getAttribute(USER_ID_ATTRIBUTE)),
+                kv("latencyMs", latencyNanos / 1_000_000),
+                kv("status", status));
+    }
+
+    /**
+     * Logs asynchronous requests, e.g. streamed exports, once they complete.
+     */
+    private final class CompletionListener implements AsyncListener {
+        private final long start;
+
+        private CompletionListener(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            completed((HttpServletRequest) event.getSuppliedRequest(), (HttpServletResponse) event.getSuppliedResponse(), start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.logicea.cards.configs;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -10,6 +9,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -20,7 +20,6 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthFilter;
-    private final AuthenticationProvider authenticationProvider;
 
     /**
      * Creates a SecurityFilterChain bean responsible for configuring the security settings for specific HTTP requests.
@@ -34,8 +33,10 @@ public class SecurityConfig {
         sharedSecurityConfiguration(httpSecurity);
         httpSecurity
                 .securityMatcher("/api/private/**")
-                .authorizeHttpRequests(auth -> auth.anyRequest().authenticated())
-                .authenticationProvider(authenticationProvider)
+                .authorizeHttpRequests(auth -> auth
+                        // Async dispatches resume requests already authorized, e.g. streamed exports
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .anyRequest().authenticated())
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
         return httpSecurity.build();
     }
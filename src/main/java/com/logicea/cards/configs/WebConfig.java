@@ -0,0 +1,28 @@
+package com.logicea.cards.configs;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Configuration class for Spring MVC customizations.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final AuthorizationContextArgumentResolver authorizationContextArgumentResolver;
+
+    /**
+     * Registers the resolver of {@link com.logicea.cards.models.AuthorizationContext} controller parameters.
+     *
+     * @param resolvers The list of argument resolvers to extend.
+     */
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(authorizationContextArgumentResolver);
+    }
+}
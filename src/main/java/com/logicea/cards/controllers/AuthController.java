@@ -13,7 +13,6 @@ import com.logicea.cards.services.AuthenticationService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 
 /**
  * Controller class responsible for handling authentication-related API endpoints that are publicly accessible.
@@ -21,7 +20,6 @@ import lombok.extern.slf4j.Slf4j;
 @RestController
 @RequestMapping("/api/open/auth")
 @RequiredArgsConstructor
-@Slf4j
 public class AuthController {
 
     private final AuthenticationService authService;
@@ -34,9 +32,7 @@ public class AuthController {
      */
     @PostMapping("/register")
     public ResponseEntity<AuthResp> register(@Valid @RequestBody RegisterUserDTO request) {
-        log.info("Started Rest request from AuthController#register. body {} ", request);
         AuthResp register = authService.register(request);
-        log.info("Ended Rest request from AuthController#register. body {} ", register);
         return ResponseEntity.ok(register);
     }
 
@@ -48,9 +44,7 @@ public class AuthController {
      */
     @PostMapping("/authenticate")
     public ResponseEntity<AuthResp> authenticate(@Valid @RequestBody AuthenticationDTO request) {
-        log.info("Started Rest request from AuthController#authenticate. body {} ", request);
         AuthResp authenticate = authService.authenticate(request);
-        log.info("Ended Rest request from AuthController#authenticate. body {} ", request);
         return ResponseEntity.ok(authenticate);
     }
 }
\ No newline at end of file
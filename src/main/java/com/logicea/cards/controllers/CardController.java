@@ -1,9 +1,11 @@
 package com.logicea.cards.controllers;
 
-import java.security.Principal;
+import java.util.List;
 
-import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,97 +13,202 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.logicea.cards.models.AuthorizationContext;
 import com.logicea.cards.models.Card;
+import com.logicea.cards.models.CardVersion;
+import com.logicea.cards.models.CardView;
 import com.logicea.cards.requests.CreateCardDTO;
+import com.logicea.cards.requests.ExportFormat;
 import com.logicea.cards.requests.SearchCardCriteriaDTO;
 import com.logicea.cards.requests.UpdateCardDTO;
+import com.logicea.cards.responses.CardBatchResp;
+import com.logicea.cards.responses.CardSearchResp;
+import com.logicea.cards.services.CardChangeFeed;
 import com.logicea.cards.services.CardService;
+import com.logicea.cards.utils.CardExportWriter;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 /**
  * REST Controller handler for managing cards.
  * This controller provides endpoints for creating, reading, updating, and deleting cards,
  * as well as searching for cards based on specified criteria.
+ * Cards are returned with a strong ETag derived from their version and a Last-Modified date, searches with an ETag
+ * derived from the versions of their cards. Reads answer {@code If-None-Match} with 304 (Not Modified) and no body,
+ * updates and deletes honor {@code If-Match} with 412 (Precondition Failed).
+ * Instead of polling, clients can follow the changes of their cards as server-sent events.
  */
 @RestController
 @RequestMapping("/api/private/cards")
 @RequiredArgsConstructor
-@Slf4j
 public class CardController {
+    /**
+     * Lets clients store card responses but revalidate them on every use, instead of the no-store of Spring Security
+     */
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final CardService cardService;
+    private final CardChangeFeed cardChangeFeed;
+    private final ObjectMapper objectMapper;
 
     /**
      * Endpoint for creating a new card with the provided information.
      *
      * @param dto The DTO (Data Transfer Object) containing the information to create the card.
-     * @param principal The Principal object representing the authenticated user.
+     * @param authContext The authorization context of the authenticated user.
      * @return A ResponseEntity with the created card and HTTP status code 201 (CREATED).
      */
     @PostMapping
-    public ResponseEntity<Card> createCard(@Valid @RequestBody CreateCardDTO dto, Principal principal) {
-        log.info("Started Rest request from CardController#createCard. body {} ", dto);
-        Card card = cardService.createCard(dto, principal.getName());
-        log.info("Ended Rest request from CardController#createCard. body {} ", dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(card);
+    public ResponseEntity<Card> createCard(@Valid @RequestBody CreateCardDTO dto, AuthorizationContext authContext) {
+        Card card = cardService.createCard(dto, authContext);
+        CardVersion version = CardVersion.of(card);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(version.eTag()).lastModified(version.lastModifiedMillis()).body(card);
     }
     /**
      * Endpoint for retrieving a card with the specified cardId.
+     * A conditional request is first checked against the version of the card alone, so a card which has not changed
+     * is neither read nor serialized.
      *
      * @param cardId The unique identifier of the card to retrieve.
-     * @param principal The Principal object representing the authenticated user.
-     * @return A ResponseEntity with the retrieved card and HTTP status code 200 (OK) if the card is found.
+     * @param authContext The authorization context of the authenticated user.
+     * @param request The request, checked for {@code If-None-Match} and {@code If-Modified-Since} headers.
+     * @return A ResponseEntity with the retrieved card and HTTP status code 200 (OK) if the card is found, or null once
+     * the response is set to 304 (Not Modified).
      */
     @GetMapping(path = "{cardId}")
-    public ResponseEntity<Card> retrieveCard(@PathVariable("cardId") Integer cardId, Principal principal) {
-        log.info("Started Rest request from CardController#createCard. vars {} ", cardId);
-        Card card = cardService.readCard(cardId, principal.getName());
-        log.info("Ended Rest request from CardController#createCard. vars {} ", cardId);
-        return ResponseEntity.ok(card);
+    public ResponseEntity<CardView> retrieveCard(@PathVariable("cardId") Integer cardId, AuthorizationContext authContext, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            CardVersion version = cardService.readCardVersion(cardId, authContext);
+            if (request.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+                return null;
+            }
+        }
+        CardView card = cardService.readCard(cardId, authContext);
+        CardVersion version = card.cardVersion();
+        return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(version.eTag()).lastModified(version.lastModifiedMillis()).body(card);
     }
     /**
      * Endpoint for updating an existing card with the provided information.
      *
      * @param dto The DTO containing the updated information for the card.
-     * @param principal The Principal object representing the authenticated user.
+     * @param authContext The authorization context of the authenticated user.
+     * @param headers The headers of the request, whose {@code If-Match} entity tags must include the one of the card if present.
      * @return A ResponseEntity with the updated card and HTTP status code 200 (OK) if the card is updated successfully.
      */
     @PutMapping
-    private ResponseEntity<Card> updateCard(@Valid @RequestBody UpdateCardDTO dto, Principal principal) {
-        log.info("Started Rest request from CardController#updateCard. body {} ", dto);
-        Card card = cardService.updateCard(dto, principal.getName());
-        log.info("Started Rest request from CardController#updateCard. body {} ", card);
-        return ResponseEntity.ok(card);
+    private ResponseEntity<Card> updateCard(@Valid @RequestBody UpdateCardDTO dto, AuthorizationContext authContext, @RequestHeader HttpHeaders headers) {
+        Card card = cardService.updateCard(dto, authContext, headers.getIfMatch());
+        CardVersion version = CardVersion.of(card);
+        return ResponseEntity.ok().eTag(version.eTag()).lastModified(version.lastModifiedMillis()).body(card);
     }
     /**
      * Endpoint for deleting a card with the specified cardId.
      *
      * @param cardId The unique identifier of the card to delete.
-     * @param principal The Principal object representing the authenticated user.
+     * @param authContext The authorization context of the authenticated user.
+     * @param headers The headers of the request, whose {@code If-Match} entity tags must include the one of the card if present.
      */
     @DeleteMapping(path = "{cardId}")
-    private void deleteCard(@PathVariable("cardId") Integer cardId, Principal principal) {
-        log.info("Started Rest request from CardController#deleteCard. vars {} ", cardId);
-        cardService.deleteCard(cardId, principal.getName());
-        log.info("Ended Rest request from CardController#deleteCard. vars {} ", cardId);
-
+    private void deleteCard(@PathVariable("cardId") Integer cardId, AuthorizationContext authContext, @RequestHeader HttpHeaders headers) {
+        cardService.deleteCard(cardId, authContext, headers.getIfMatch());
     }
     /**
      * Endpoint for searching for cards based on the criteria specified in the SearchCardCriteriaDTO.
+     * In cursor mode the result carries the cursor of the next slice instead of the page number and total.
+     * A search whose result has not changed since the {@code If-None-Match} entity tag is answered with 304 (Not
+     * Modified) without serializing the result. Searches have no Last-Modified date: a card leaving the result would
+     * not move it.
      *
      * @param dto The DTO containing the search criteria for cards.
-     * @param principal The Principal object representing the authenticated user.
-     * @return A ResponseEntity with a Page of cards that match the specified search criteria and HTTP status code 200 (OK).
+     * @param authContext The authorization context of the authenticated user.
+     * @return A ResponseEntity with a {@link CardSearchResp} of the cards that match the specified search criteria and HTTP status code 200 (OK).
      */
     @GetMapping("/search")
-    public ResponseEntity<Page<Card>> searchCards(@RequestBody SearchCardCriteriaDTO dto, Principal principal) {
-        log.info("Started Rest request from CardController#searchCards. body {} ", dto);
-        Page<Card> cards = cardService.searchCards(dto, principal.getName());
-        log.info("Ended Rest request from CardController#searchCards. body {} ", dto);
-        return ResponseEntity.ok().body(cards);
+    public ResponseEntity<CardSearchResp> searchCards(@RequestBody SearchCardCriteriaDTO dto, AuthorizationContext authContext) {
+        CardSearchResp cards = dto.isCursorMode()
+                ? cardService.searchCardsByCursor(dto, authContext)
+                : cardService.searchCards(dto, authContext);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(cards.eTag()).body(cards);
+    }
+    /**
+     * Endpoint for creating many cards at once. Items are validated one by one, so invalid items do not fail the batch.
+     *
+     * @param dtos The DTOs containing the information to create each card.
+     * @param authContext The authorization context of the authenticated user.
+     * @return A ResponseEntity with the outcome of every item and HTTP status code 201 (CREATED) if all the cards are
+     * created, 207 (MULTI_STATUS) otherwise.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<CardBatchResp> createCards(@RequestBody List<CreateCardDTO> dtos, AuthorizationContext authContext) {
+        CardBatchResp resp = cardService.createCards(dtos, authContext);
+        return ResponseEntity.status(resp.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(resp);
+    }
+    /**
+     * Endpoint for updating many cards at once. Items are validated one by one, so invalid, missing or not permitted
+     * items do not fail the batch.
+     *
+     * @param dtos The DTOs containing the updated information of each card.
+     * @param authContext The authorization context of the authenticated user.
+     * @return A ResponseEntity with the outcome of every item and HTTP status code 200 (OK) if all the cards are
+     * updated, 207 (MULTI_STATUS) otherwise.
+     */
+    @PutMapping("/batch")
+    public ResponseEntity<CardBatchResp> updateCards(@RequestBody List<UpdateCardDTO> dtos, AuthorizationContext authContext) {
+        CardBatchResp resp = cardService.updateCards(dtos, authContext);
+        return ResponseEntity.status(resp.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(resp);
+    }
+    /**
+     * Endpoint for deleting many cards at once. Missing or not permitted cards do not fail the batch.
+     *
+     * @param cardIds The unique identifiers of the cards to delete.
+     * @param authContext The authorization context of the authenticated user.
+     * @return A ResponseEntity with the outcome of every item and HTTP status code 200 (OK) if all the cards are
+     * deleted, 207 (MULTI_STATUS) otherwise.
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<CardBatchResp> deleteCards(@RequestBody List<Integer> cardIds, AuthorizationContext authContext) {
+        CardBatchResp resp = cardService.deleteCards(cardIds, authContext);
+        return ResponseEntity.status(resp.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(resp);
+    }
+    /**
+     * Endpoint for exporting every card the authenticated user can access, in no particular order.
+     * The cards are streamed while they are read from the database instead of being collected in a page.
+     *
+     * @param format The format of the export, ndjson (default) or csv.
+     * @param authContext The authorization context of the authenticated user.
+     * @return A ResponseEntity streaming the cards and HTTP status code 200 (OK).
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCards(@RequestParam(name = "format", defaultValue = "ndjson") String format,
+                                                             AuthorizationContext authContext) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        StreamingResponseBody body = outputStream ->
+                cardService.exportCards(authContext, CardExportWriter.of(exportFormat, objectMapper, outputStream));
+        return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
+    }
+
+    /**
+     * Endpoint for following the changes of the cards of the authenticated user, of all cards for admins.
+     * Every change is sent as a CREATED, UPDATED or DELETED event with the card and its version. A client reconnecting
+     * with the Last-Event-ID header gets the events it missed, or a reset event when they are no longer kept.
+     *
+     * @param authContext The authorization context of the authenticated user.
+     * @param lastEventId The id of the last event received before reconnecting, if any.
+     * @return The stream of server-sent events.
+     */
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(AuthorizationContext authContext,
+                              @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return cardChangeFeed.subscribe(authContext, lastEventId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.logicea.cards.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.logicea.cards.models.AuthorizationContext;
+import com.logicea.cards.services.AuthenticationService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Controller class responsible for managing the tokens of the authenticated user.
+ */
+@RestController
+@RequestMapping("/api/private/auth")
+@RequiredArgsConstructor
+public class TokenController {
+
+    private final AuthenticationService authService;
+
+    /**
+     * Handles the revocation endpoint, logging the authenticated user out of every session.
+     *
+     * @param authContext The authorization context of the authenticated user.
+     * @return A ResponseEntity with HTTP status code 204 (NO CONTENT) once every token of the user is revoked.
+     */
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revokeTokens(AuthorizationContext authContext) {
+        authService.revokeTokens(authContext);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,8 +2,11 @@ package com.logicea.cards.exceptions;
 
 import java.util.StringJoiner;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -83,6 +86,32 @@ public class GlobalExceptionHandler {
 		return ResponseEntity.status(HttpStatus.FORBIDDEN).body(exception);
 	}
 
+	/**
+	 * Exception handler method that handles PreconditionFailed exception that occurs when the card has changed since
+	 * the version given by the {@code If-Match} header of a write.
+	 *
+	 * @param ex The PreconditionFailed object containing the exception message and the current entity tag of the card.
+	 * @return A ResponseEntity containing an ApiException and the current ETag of the card with HTTP status code 412.
+	 */
+	@ExceptionHandler(PreconditionFailed.class)
+	public ResponseEntity<ApiException> handlePreconditionFailed(PreconditionFailed ex) {
+		ApiException exception = new ApiException("Card error", ex.getMessage());
+		return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(ex.getETag()).body(exception);
+	}
+
+	/**
+	 * Exception handler method that handles OptimisticLockingFailureException that occurs when a card is written
+	 * concurrently by another request, between the read and the write of this one.
+	 *
+	 * @param ex The OptimisticLockingFailureException object containing the exception message.
+	 * @return A ResponseEntity containing an ApiException with HTTP status code 409.
+	 */
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<ApiException> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+		ApiException exception = new ApiException("Card error", "The card was modified concurrently, read it again");
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(exception);
+	}
+
 	/**
 	 * Exception handler method that handles InvalidCriteria exception that occurs when invalid search criteria are
 	 * provided.
@@ -95,4 +124,43 @@ public class GlobalExceptionHandler {
 		ApiException exception = new ApiException("Invalid criteria", ex.getMessage());
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Exception handler method that handles InvalidBatch exception that occurs when a batch request is empty or too
+	 * large.
+	 *
+	 * @param ex The InvalidBatch object containing the exception message.
+	 * @return A ResponseEntity containing an ApiException with details about the batch error.
+	 */
+	@ExceptionHandler(InvalidBatch.class)
+	public ResponseEntity<ApiException> handleInvalidBatch(InvalidBatch ex) {
+		ApiException exception = new ApiException("Batch error", ex.getMessage());
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception);
+	}
+
+	/**
+	 * Exception handler method that handles BadCredentialsException that occurs when the password of a login does not
+	 * match.
+	 *
+	 * @param ex The BadCredentialsException object containing the exception message.
+	 * @return A ResponseEntity containing an ApiException with HTTP status code 401.
+	 */
+	@ExceptionHandler(BadCredentialsException.class)
+	public ResponseEntity<ApiException> handleBadCredentials(BadCredentialsException ex) {
+		ApiException exception = new ApiException("Credentials error", ex.getMessage());
+		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(exception);
+	}
+
+	/**
+	 * Exception handler method that handles PasswordHashingBusy exception that occurs when the password hashing
+	 * executor is saturated.
+	 *
+	 * @param ex The PasswordHashingBusy object containing the exception message.
+	 * @return A ResponseEntity containing an ApiException and a Retry-After header with HTTP status code 503.
+	 */
+	@ExceptionHandler(PasswordHashingBusy.class)
+	public ResponseEntity<ApiException> handlePasswordHashingBusy(PasswordHashingBusy ex) {
+		ApiException exception = new ApiException("Service busy", ex.getMessage());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(exception);
+	}
+}
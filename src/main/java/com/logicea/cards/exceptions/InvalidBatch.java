@@ -0,0 +1,10 @@
+package com.logicea.cards.exceptions;
+
+/**
+ * Custom exception for batch requests which cannot be processed at all
+ */
+public class InvalidBatch extends RuntimeException {
+    public InvalidBatch(String message) {
+        super(message);
+    }
+}
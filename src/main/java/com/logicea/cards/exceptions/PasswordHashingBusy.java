@@ -0,0 +1,11 @@
+package com.logicea.cards.exceptions;
+
+/**
+ * Custom exception for logins and registrations refused because every password hashing thread is busy and the queue
+ * in front of them is full
+ */
+public class PasswordHashingBusy extends RuntimeException {
+    public PasswordHashingBusy(String message) {
+        super(message);
+    }
+}
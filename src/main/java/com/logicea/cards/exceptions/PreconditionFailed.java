@@ -0,0 +1,16 @@
+package com.logicea.cards.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Custom exception for conditional requests whose {@code If-Match} entity tags do not match the current version of the card
+ */
+@Getter
+public class PreconditionFailed extends RuntimeException {
+    private final String eTag;
+
+    public PreconditionFailed(String message, String eTag) {
+        super(message);
+        this.eTag = eTag;
+    }
+}
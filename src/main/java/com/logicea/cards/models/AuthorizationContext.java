@@ -0,0 +1,29 @@
+package com.logicea.cards.models;
+
+/**
+ * Identity and role of the authenticated caller, resolved once per request from the claims of its token and used as
+ * the principal of the security context.
+ *
+ * @param userId The id of the authenticated user.
+ * @param email  The email of the authenticated user.
+ * @param role   The role of the authenticated user.
+ */
+public record AuthorizationContext(Integer userId, String email, Role role) {
+
+    /**
+     * Creates the context of an already authenticated user.
+     *
+     * @param user The authenticated user.
+     * @return The authorization context of the user.
+     */
+    public static AuthorizationContext of(User user) {
+        return new AuthorizationContext(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    /**
+     * @return true if the caller is an {@link Role#ADMIN} and may access every card, false otherwise.
+     */
+    public boolean isAdmin() {
+        return Role.ADMIN.equals(role);
+    }
+}
@@ -2,6 +2,8 @@ package com.logicea.cards.models;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.UpdateTimestamp;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
@@ -10,9 +12,14 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -21,18 +28,30 @@ import lombok.NoArgsConstructor;
 
 /**
  * Entity class representing a card in application.
+ * The indexes back the search filters: members always search within their own cards (leading {@code user_id}),
+ * admins search across all cards.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "_card")
+@Table(indexes = {
+        @Index(name = "idx_card_user_status_creation", columnList = "user_id, status, creation_date"),
+        @Index(name = "idx_card_user_name", columnList = "user_id, name"),
+        @Index(name = "idx_card_user_color", columnList = "user_id, color"),
+        @Index(name = "idx_card_status_creation", columnList = "status, creation_date"),
+        @Index(name = "idx_card_name", columnList = "name")
+})
 public class Card {
     /**
-     * Primary key of entity
+     * Primary key of entity, drawn from a pooled sequence so that inserts can be batched: a block of
+     * {@code allocationSize} ids costs one round trip (a table emulating the sequence on MySQL).
+     * Matches the defaults Hibernate already used for this entity, so existing databases keep their sequence.
      */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_id")
+    @SequenceGenerator(name = "card_id", sequenceName = "_card_seq", allocationSize = 50)
     @Column(name = "id")
     private Integer id;
     /**
@@ -69,6 +88,20 @@ public class Card {
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
     private Status status;
-
+    /**
+     * Version of card, incremented and checked by every update (optimistic locking). It is the entity tag of the card
+     * in HTTP responses.
+     */
+    @JsonIgnore
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    /**
+     * Modification date of card, set on insert and on every update
+     */
+    @JsonIgnore
+    @UpdateTimestamp
+    @Column(name = "modification_date")
+    private LocalDateTime modificationDate;
 
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.logicea.cards.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Change of a card, as sent to the subscribers of the change feed.
+ *
+ * @param type    The kind of change.
+ * @param cardId  The unique identifier of the card.
+ * @param version The version of the card after the change, its entity tag; null when deleted.
+ * @param ownerId The ID of the user who owns the card, who is notified along with the admins.
+ * @param card    The card after the change, null when deleted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CardChange(Type type,
+                         Integer cardId,
+                         Long version,
+                         @JsonIgnore Integer ownerId,
+                         CardView card) {
+
+    /**
+     * Kinds of card changes, also the names of the server-sent events.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    /**
+     * @param card A card which was just created.
+     * @return The creation of the card.
+     */
+    public static CardChange created(Card card) {
+        return new CardChange(Type.CREATED, card.getId(), card.getVersion(), card.getUser().getId(), CardView.of(card));
+    }
+
+    /**
+     * @param card A card which was just updated and flushed.
+     * @return The update of the card.
+     */
+    public static CardChange updated(Card card) {
+        return new CardChange(Type.UPDATED, card.getId(), card.getVersion(), card.getUser().getId(), CardView.of(card));
+    }
+
+    /**
+     * @param cardId  The unique identifier of a card which was just deleted.
+     * @param ownerId The ID of the user who owned the card.
+     * @return The deletion of the card.
+     */
+    public static CardChange deleted(Integer cardId, Integer ownerId) {
+        return new CardChange(Type.DELETED, cardId, null, ownerId, null);
+    }
+
+    /**
+     * @param authContext The authorization context of a subscriber.
+     * @return Whether the subscriber is an admin or the owner of the card.
+     */
+    public boolean isVisibleTo(AuthorizationContext authContext) {
+        return authContext.isAdmin() || ownerId.equals(authContext.userId());
+    }
+}
@@ -0,0 +1,97 @@
+package com.logicea.cards.models;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity class representing a card change waiting in the transactional outbox.
+ * Rows are written in the transaction of the change and relayed to downstream systems once committed, at least once:
+ * consumers deduplicate on the id, which also orders the changes of a card.
+ * The index backs the claim of the oldest unsent rows and the purge of the sent ones.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "_card_outbox")
+@Table(indexes = @Index(name = "idx_card_outbox_sent", columnList = "sent_at, id"))
+@JsonPropertyOrder({"id", "type", "cardId", "ownerId", "createdAt", "change"})
+public class CardOutboxEvent {
+    /**
+     * Primary key of entity, drawn from a pooled sequence so that the rows of a batch are inserted in JDBC batches
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_outbox_id")
+    @SequenceGenerator(name = "card_outbox_id", sequenceName = "_card_outbox_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+    /**
+     * Kind of change
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private CardChange.Type type;
+    /**
+     * Changed card
+     */
+    @Column(name = "card_id", nullable = false)
+    private Integer cardId;
+    /**
+     * Owner of the changed card
+     */
+    @Column(name = "owner_id", nullable = false)
+    private Integer ownerId;
+    /**
+     * The change as sent to the subscribers of the change feed, serialized as JSON
+     */
+    @JsonRawValue
+    @JsonProperty("change")
+    @Column(name = "payload", nullable = false, length = 4000)
+    private String payload;
+    /**
+     * Date of the change
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    /**
+     * Date the change was relayed, null until then
+     */
+    @JsonIgnore
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    /**
+     * @param change    A change of a card.
+     * @param payload   The change serialized as JSON.
+     * @param createdAt The date of the change.
+     * @return The outbox row of the change.
+     */
+    public static CardOutboxEvent of(CardChange change, String payload, LocalDateTime createdAt) {
+        return CardOutboxEvent.builder()
+                .type(change.type())
+                .cardId(change.cardId())
+                .ownerId(change.ownerId())
+                .payload(payload)
+                .createdAt(createdAt)
+                .build();
+    }
+}
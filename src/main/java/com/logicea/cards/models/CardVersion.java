@@ -0,0 +1,69 @@
+package com.logicea.cards.models;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * HTTP validators of a {@link Card}: the strong entity tag derived from its version and its modification date.
+ * Two responses of the same card with the same version have the same body, so clients revalidate a card with
+ * {@code If-None-Match} and guard their writes with {@code If-Match}.
+ *
+ * @param version      The version of the card.
+ * @param lastModified The modification date of the card, or its creation date if it was never modified since
+ *                     modification dates are recorded.
+ * @param ownerId      The ID of the user who owns the card.
+ */
+public record CardVersion(Long version, LocalDateTime lastModified, Integer ownerId) {
+
+    /**
+     * @param card A card loaded from the database; its owner does not need to be initialized.
+     * @return The validators of the card.
+     */
+    public static CardVersion of(Card card) {
+        return new CardVersion(card.getVersion(), lastModified(card.getModificationDate(), card.getCreationDate()),
+                card.getUser().getId());
+    }
+
+    /**
+     * @param modificationDate The modification date of a card, null if it was never modified since modification
+     *                         dates are recorded.
+     * @param creationDate     The creation date of the card.
+     * @return The date the card was last modified.
+     */
+    public static LocalDateTime lastModified(LocalDateTime modificationDate, LocalDateTime creationDate) {
+        return modificationDate != null ? modificationDate : creationDate;
+    }
+
+    /**
+     * @return The strong entity tag of the card, e.g. {@code "3"}.
+     */
+    public String eTag() {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @return The modification date in milliseconds since the epoch, in the time zone of the server which wrote it.
+     */
+    public long lastModifiedMillis() {
+        return lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Evaluates an {@code If-Match} header with the strong comparison: weak entity tags never match.
+     *
+     * @param ifMatch The entity tags of the {@code If-Match} header, empty if there is none.
+     * @return Whether the header is absent, is {@code *} or lists the entity tag of the card.
+     */
+    public boolean matches(List<String> ifMatch) {
+        return ifMatch.isEmpty() || ifMatch.contains("*") || ifMatch.contains(eTag());
+    }
+
+    /**
+     * @param authContext The authorization context of the user accessing the card.
+     * @return Whether the user is an admin or the owner of the card.
+     */
+    public boolean isAccessibleBy(AuthorizationContext authContext) {
+        return authContext.isAdmin() || ownerId.equals(authContext.userId());
+    }
+}
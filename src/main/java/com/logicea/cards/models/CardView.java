@@ -0,0 +1,70 @@
+package com.logicea.cards.models;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Read only projection of a {@link Card}, selected column by column by the read and search queries.
+ * Unlike the entity it is neither tracked by a persistence context nor dirty checked, and it holds the id of the
+ * owner instead of a proxy, so it can be serialized after the connection has been given back. It is serialized like
+ * the entity.
+ *
+ * @param id               The unique identifier of the card.
+ * @param name             The name of the card.
+ * @param description      The description of the card.
+ * @param color            The color of the card.
+ * @param creationDate     The creation date of the card.
+ * @param status           The status of the card.
+ * @param ownerId          The ID of the user who owns the card.
+ * @param version          The version of the card.
+ * @param modificationDate The modification date of the card.
+ */
+public record CardView(Integer id,
+                       String name,
+                       String description,
+                       String color,
+                       LocalDateTime creationDate,
+                       Status status,
+                       @JsonIgnore Integer ownerId,
+                       @JsonIgnore Long version,
+                       @JsonIgnore LocalDateTime modificationDate) {
+
+    /**
+     * @param card A card loaded from the database; its owner does not need to be initialized.
+     * @return The view of the card.
+     */
+    public static CardView of(Card card) {
+        return new CardView(card.getId(), card.getName(), card.getDescription(), card.getColor(), card.getCreationDate(),
+                card.getStatus(), card.getUser().getId(), card.getVersion(), card.getModificationDate());
+    }
+
+    /**
+     * @return The HTTP validators of the card.
+     */
+    public CardVersion cardVersion() {
+        return new CardVersion(version, CardVersion.lastModified(modificationDate, creationDate), ownerId);
+    }
+
+    /**
+     * Resolves the value of a sort property, named after the property path of the {@link Card} entity.
+     *
+     * @param property The property path, e.g. {@code user.id}.
+     * @return The value of the property.
+     * @throws IllegalArgumentException If the property is not a column of the card.
+     */
+    public Object propertyValue(String property) {
+        return switch (property) {
+            case "id" -> id;
+            case "name" -> name;
+            case "description" -> description;
+            case "color" -> color;
+            case "creationDate" -> creationDate;
+            case "status" -> status;
+            case "user.id" -> ownerId;
+            case "version" -> version;
+            case "modificationDate" -> modificationDate;
+            default -> throw new IllegalArgumentException("Unknown card property " + property);
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.logicea.cards.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.logicea.cards.models.CardOutboxEvent;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+/**
+ * Repository interface for the card changes of the transactional outbox.
+ */
+@Repository
+public interface CardOutboxRepository extends JpaRepository<CardOutboxEvent, Long> {
+    /**
+     * Claims the oldest unsent changes until the end of the current transaction, with
+     * {@code SELECT ... FOR UPDATE SKIP LOCKED}: rows claimed by another relay are skipped instead of waited for, so
+     * relays on several instances share the outbox without blocking each other or the writers. A lock timeout of -2
+     * is {@code LockOptions.SKIP_LOCKED}.
+     *
+     * @param pageable The maximum number of changes to claim.
+     * @return The claimed changes, oldest first.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM _card_outbox e WHERE e.sentAt IS NULL ORDER BY e.id")
+    List<CardOutboxEvent> claimUnsent(Pageable pageable);
+
+    /**
+     * Marks the specified changes as sent, in a single statement.
+     *
+     * @param ids    The unique identifiers of the changes.
+     * @param sentAt The date they were relayed.
+     * @return The number of changes marked.
+     */
+    @Modifying
+    @Query("UPDATE _card_outbox e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Deletes the changes relayed before the specified date, in a single statement.
+     *
+     * @param before The oldest relay date to keep.
+     * @return The number of changes deleted.
+     */
+    @Modifying
+    @Query("DELETE FROM _card_outbox e WHERE e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
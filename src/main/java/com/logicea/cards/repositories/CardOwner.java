@@ -0,0 +1,10 @@
+package com.logicea.cards.repositories;
+
+/**
+ * Identifier and owner of a card.
+ *
+ * @param cardId  The unique identifier of the card.
+ * @param ownerId The ID of the user who owns the card.
+ */
+public record CardOwner(Integer cardId, Integer ownerId) {
+}
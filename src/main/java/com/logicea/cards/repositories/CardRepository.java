@@ -1,62 +1,108 @@
 package com.logicea.cards.repositories;
 
-import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.logicea.cards.models.Card;
+import com.logicea.cards.models.CardVersion;
+import com.logicea.cards.models.CardView;
 
 /**
  * Repository interface for accessing and managing cards in the database.
  * This interface extends JpaRepository to provide basic CRUD (Create, Read, Update, Delete) operations for the Card entity.
  */
 @Repository
-public interface CardRepository extends JpaRepository<Card, Integer> {
+public interface CardRepository extends JpaRepository<Card, Integer>, CardSearchRepository {
     /**
-     * Checks if a card with the specified cardId belongs to the user with the given email.
+     * Finds the card with the specified cardId if the given user is allowed to access it, in a single statement.
      *
-     * @param cardId The unique identifier of the card to check.
-     * @param email  The email of the user to whom the card ownership is being checked.
-     * @return true if the card with the given cardId belongs to the user with the specified email,false otherwise.
+     * @param cardId The unique identifier of the card to find.
+     * @param userId The ID of the user accessing the card.
+     * @param admin  Whether the user is an admin, in which case ownership is not required.
+     * @return An Optional containing the card if it exists and is accessible, or an empty Optional otherwise.
      */
-    @Query(nativeQuery = true, value = """
-            SELECT IF(COUNT(C.ID) > 0,	'TRUE',	'FALSE')
-             FROM cards.`_user` AS U
-             INNER JOIN cards.`_card` C ON U.ID = C.USER_ID
-             WHERE U.EMAIL = :email AND C.ID = :cardId
-            """)
-    Boolean isCardIdBelongToThisEmail(@Param("cardId") Integer cardId, @Param("email") String email);
+    @Query("""
+            SELECT c FROM _card c
+            WHERE c.id = :cardId AND (:admin = TRUE OR c.user.id = :userId)""")
+    Optional<Card> findAccessibleCard(@Param("cardId") Integer cardId, @Param("userId") Integer userId, @Param("admin") boolean admin);
 
     /**
-     * Searches for cards based on the specified search criteria.
+     * Finds the card with the specified cardId as a read only projection, in a read only transaction.
      *
-     * @param userId       The ID of the user to whom the cards belong. If null, will not search by userId.
-     * @param cardName         The name of the cards to search for. If null, will not search by name.
-     * @param color        The color of the cards to search for. If null, will not search by color.
-     * @param status       The status of the cards to search for. If null, will not search by status.
-     * @param creationDate The minimum creation date of the cards to search for. If null, will not search by creationDate.
-     * @param pageable     The pageable object specifying the pagination and sorting criteria for the search results.
-     * @return A Page containing the cards that match the specified search criteria.
+     * @param cardId The unique identifier of the card to find.
+     * @return An Optional containing the card if it exists, or an empty Optional otherwise.
      */
-    @Query(value = """
-            SELECT * FROM cards.`_card` c 
-            WHERE (:userId IS NULL OR c.user_id = :userId)
-            AND (:cardName IS NULL OR c.name LIKE %:cardName%) 
-            AND (:color IS NULL OR c.color LIKE %:color%) 
-            AND (:status IS NULL OR c.status LIKE %:status%) 
-            AND (:creationDate IS NULL OR c.creation_date= :creationDate)""",
-            nativeQuery = true)
-    Page<Card> searchCards(
-            @Param("userId") Integer userId,
-            @Param("cardName") String cardName,
-            @Param("color") String color,
-            @Param("status") String status,
-            @Param("creationDate") LocalDateTime creationDate,
-            Pageable pageable);
-
-}
\ No newline at end of file
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.logicea.cards.models.CardView(c.id, c.name, c.description, c.color, c.creationDate, c.status, c.user.id,
+                c.version, c.modificationDate)
+            FROM _card c WHERE c.id = :cardId""")
+    Optional<CardView> findViewById(@Param("cardId") Integer cardId);
+
+    /**
+     * Finds the HTTP validators of the card with the specified cardId, without reading the rest of the card, in a read
+     * only transaction.
+     *
+     * @param cardId The unique identifier of the card.
+     * @return An Optional containing the version, modification date and owner of the card if it exists, or an empty
+     * Optional otherwise.
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.logicea.cards.models.CardVersion(c.version, COALESCE(c.modificationDate, c.creationDate), c.user.id)
+            FROM _card c WHERE c.id = :cardId""")
+    Optional<CardVersion> findVersionById(@Param("cardId") Integer cardId);
+
+    /**
+     * Checks whether the card with the specified cardId exists.
+     * Unlike {@link #existsById(Object)}, which counts the matching rows, this is an {@code EXISTS} probe stopping at
+     * the first match.
+     *
+     * @param cardId The unique identifier of the card.
+     * @return true if the card exists, false otherwise.
+     */
+    @Query("SELECT CASE WHEN EXISTS (SELECT 1 FROM _card c WHERE c.id = :cardId) THEN TRUE ELSE FALSE END")
+    boolean cardExists(@Param("cardId") Integer cardId);
+
+    /**
+     * Finds the cards with the specified cardIds that the given user is allowed to access, in a single statement.
+     *
+     * @param cardIds The unique identifiers of the cards to find.
+     * @param userId  The ID of the user accessing the cards.
+     * @param admin   Whether the user is an admin, in which case ownership is not required.
+     * @return The cards which exist and are accessible, in no particular order.
+     */
+    @Query("""
+            SELECT c FROM _card c
+            WHERE c.id IN :cardIds AND (:admin = TRUE OR c.user.id = :userId)""")
+    List<Card> findAccessibleCards(@Param("cardIds") Collection<Integer> cardIds, @Param("userId") Integer userId, @Param("admin") boolean admin);
+
+    /**
+     * Same as {@link #findAccessibleCards(Collection, Integer, boolean)} without loading the cards.
+     *
+     * @param cardIds The unique identifiers of the cards to find.
+     * @param userId  The ID of the user accessing the cards.
+     * @param admin   Whether the user is an admin, in which case ownership is not required.
+     * @return The identifiers and owners of the cards which exist and are accessible.
+     */
+    @Query("""
+            SELECT new com.logicea.cards.repositories.CardOwner(c.id, c.user.id) FROM _card c
+            WHERE c.id IN :cardIds AND (:admin = TRUE OR c.user.id = :userId)""")
+    List<CardOwner> findAccessibleCardOwners(@Param("cardIds") Collection<Integer> cardIds, @Param("userId") Integer userId, @Param("admin") boolean admin);
+
+    /**
+     * Finds which of the specified cardIds exist.
+     *
+     * @param cardIds The unique identifiers of the cards to look for.
+     * @return The identifiers of the cards which exist.
+     */
+    @Query("SELECT c.id FROM _card c WHERE c.id IN :cardIds")
+    List<Integer> findExistingCardIds(@Param("cardIds") Collection<Integer> cardIds);
+}
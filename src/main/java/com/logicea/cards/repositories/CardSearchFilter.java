@@ -0,0 +1,17 @@
+package com.logicea.cards.repositories;
+
+import java.time.LocalDateTime;
+
+import com.logicea.cards.models.Status;
+
+/**
+ * Filters of a card search. Every null filter is ignored.
+ *
+ * @param userId       The ID of the user to whom the cards belong.
+ * @param name         The name of the cards to search for.
+ * @param color        The color of the cards to search for.
+ * @param status       The status of the cards to search for.
+ * @param creationDate The creation date of the cards to search for.
+ */
+public record CardSearchFilter(Integer userId, String name, String color, Status status, LocalDateTime creationDate) {
+}
@@ -0,0 +1,58 @@
+package com.logicea.cards.repositories;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import com.logicea.cards.models.CardView;
+
+/**
+ * Custom search operations of {@link CardRepository} which cannot be expressed as a single static query.
+ */
+public interface CardSearchRepository {
+    /**
+     * Searches for cards matching the filter. Only the supplied filters are applied: owner, color, status and
+     * creation date must be equal, the name must start with the given one.
+     * One more card than the page size is fetched to tell whether a next page exists, no count query is issued.
+     *
+     * @param filter   The filters of the search.
+     * @param pageable The pageable object specifying the pagination and sorting, by property name, of the results.
+     * @return A Slice containing the cards that match the specified filters.
+     */
+    Slice<CardView> searchCards(CardSearchFilter filter, Pageable pageable);
+
+    /**
+     * Counts the cards matching the filter, with the same predicates as {@link #searchCards(CardSearchFilter, Pageable)}.
+     *
+     * @param filter The filters of the search.
+     * @return The number of cards that match the specified filters.
+     */
+    long countCards(CardSearchFilter filter);
+
+    /**
+     * Keyset (seek) search: returns the cards matching the filter which come strictly after the given sort key values.
+     * Unlike an offset, the position is an indexed predicate, so every page costs the same as the first one.
+     *
+     * @param filter The filters of the search.
+     * @param orders The sort orders of the search, by property name. The last order must be unique (e.g. the id).
+     * @param after  The sort key values of the last card of the previous page, in the order of {@code orders},
+     *               or null for the first page.
+     * @param limit  The maximum number of cards to return.
+     * @return The cards which follow the given position.
+     */
+    List<CardView> searchCardsAfter(CardSearchFilter filter, List<Sort.Order> orders, List<Object> after, int limit);
+
+    /**
+     * Streams the cards matching the filter from a forward only cursor, in no particular order.
+     * Cards are read from the database {@code fetchSize} rows at a time as projections the persistence context does not
+     * keep, so memory stays constant whatever the number of cards. The stream must be consumed within a transaction and closed.
+     *
+     * @param filter    The filters of the export.
+     * @param fetchSize The number of rows fetched from the database per round trip.
+     * @return A stream of cards.
+     */
+    Stream<CardView> streamCards(CardSearchFilter filter, int fetchSize);
+}
@@ -0,0 +1,185 @@
+package com.logicea.cards.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+
+import com.logicea.cards.models.Card;
+import com.logicea.cards.models.CardView;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Criteria API implementation of {@link CardSearchRepository}.
+ * Only the filters which are actually supplied become predicates, and every predicate is sargable: equality on
+ * owner, color, status and creation date, prefix match on name. So MySQL can pick one of the indexes declared on
+ * {@link Card} instead of scanning the whole table. Cards are selected as {@link CardView} projections, so no entity
+ * is instantiated, tracked or dirty checked by the persistence context.
+ */
+public class CardSearchRepositoryImpl implements CardSearchRepository {
+    private static final char LIKE_ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<CardView> searchCards(CardSearchFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardView> query = cb.createQuery(CardView.class);
+        Root<Card> card = query.from(Card.class);
+        List<Order> sqlOrders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            Path<?> path = path(card, order.getProperty());
+            sqlOrders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        query.select(view(cb, card)).where(filterPredicates(cb, card, filter).toArray(Predicate[]::new)).orderBy(sqlOrders);
+        List<CardView> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public long countCards(CardSearchFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Card> card = query.from(Card.class);
+        query.select(cb.count(card)).where(filterPredicates(cb, card, filter).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public List<CardView> searchCardsAfter(CardSearchFilter filter, List<Sort.Order> orders, List<Object> after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardView> query = cb.createQuery(CardView.class);
+        Root<Card> card = query.from(Card.class);
+
+        List<Path<?>> sortPaths = new ArrayList<>(orders.size());
+        List<Order> sqlOrders = new ArrayList<>(orders.size());
+        for (Sort.Order order : orders) {
+            Path<?> path = path(card, order.getProperty());
+            sortPaths.add(path);
+            sqlOrders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+
+        List<Predicate> predicates = filterPredicates(cb, card, filter);
+        if (after != null) {
+            predicates.add(after(cb, sortPaths, orders, after));
+        }
+        query.select(view(cb, card)).where(predicates.toArray(Predicate[]::new)).orderBy(sqlOrders);
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<CardView> streamCards(CardSearchFilter filter, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardView> query = cb.createQuery(CardView.class);
+        Root<Card> card = query.from(Card.class);
+        // No ORDER BY: rows come in index order, without a sort buffering the whole result on the server
+        query.select(view(cb, card)).where(filterPredicates(cb, card, filter).toArray(Predicate[]::new));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    /**
+     * Selects the columns of a card into a {@link CardView}. The owner id is read from the foreign key, without a join.
+     */
+    private static CompoundSelection<CardView> view(CriteriaBuilder cb, Root<Card> card) {
+        return cb.construct(CardView.class, card.get("id"), card.get("name"), card.get("description"), card.get("color"),
+                card.get("creationDate"), card.get("status"), card.get("user").get("id"), card.get("version"),
+                card.get("modificationDate"));
+    }
+
+    /**
+     * Builds the predicates of the filters which are actually supplied.
+     */
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Card> card, CardSearchFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.userId() != null) {
+            predicates.add(cb.equal(card.get("user").get("id"), filter.userId()));
+        }
+        if (StringUtils.hasText(filter.name())) {
+            predicates.add(cb.like(card.get("name"), escapeLike(filter.name()) + "%", LIKE_ESCAPE));
+        }
+        if (StringUtils.hasText(filter.color())) {
+            predicates.add(cb.equal(card.get("color"), filter.color()));
+        }
+        if (filter.status() != null) {
+            predicates.add(cb.equal(card.get("status"), filter.status()));
+        }
+        if (filter.creationDate() != null) {
+            predicates.add(cb.equal(card.get("creationDate"), filter.creationDate()));
+        }
+        return predicates;
+    }
+
+    /**
+     * Builds the keyset predicate {@code (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ...} of the given position.
+     * Nulls are ordered as MySQL does: before any value in ascending order and after any value in descending order.
+     */
+    private Predicate after(CriteriaBuilder cb, List<Path<?>> paths, List<Sort.Order> orders, List<Object> values) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalities = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Predicate strictlyAfter = strictlyAfter(cb, paths.get(i), orders.get(i).isAscending(), values.get(i));
+            if (strictlyAfter != null) {
+                List<Predicate> alternative = new ArrayList<>(equalities);
+                alternative.add(strictlyAfter);
+                alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+            }
+            equalities.add(values.get(i) == null ? cb.isNull(paths.get(i)) : cb.equal(paths.get(i), values.get(i)));
+        }
+        return cb.or(alternatives.toArray(Predicate[]::new));
+    }
+
+    /**
+     * @return The predicate matching the values which are sorted strictly after the given one, or null if none can be.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate strictlyAfter(CriteriaBuilder cb, Path<?> path, boolean ascending, Object value) {
+        if (value == null) {
+            return ascending ? cb.isNotNull(path) : null;
+        }
+        Expression comparable = path;
+        return ascending
+                ? cb.greaterThan(comparable, (Comparable) value)
+                : cb.or(cb.lessThan(comparable, (Comparable) value), cb.isNull(path));
+    }
+
+    /**
+     * Escapes the wildcards of a user supplied LIKE pattern.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Resolves a dotted property path, e.g. {@code user.id}.
+     */
+    private static Path<?> path(Root<Card> card, String property) {
+        Path<?> path = card;
+        for (String part : property.split("\\.")) {
+            path = path.get(part);
+        }
+        return path;
+    }
+}
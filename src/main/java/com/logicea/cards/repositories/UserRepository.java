@@ -1,13 +1,15 @@
 package com.logicea.cards.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.logicea.cards.models.Role;
 import com.logicea.cards.models.User;
 /**
  * Repository interface for managing User entities in the database.
@@ -21,28 +23,61 @@ public interface UserRepository extends JpaRepository<User, Integer> {
      * @return An Optional containing the User object if found, or an empty Optional if not found.
      */
     Optional<User> findByEmail(String email);
-    /**
-     * Find the role of a user by their email address.
-     *
-     * @param email The email address of the user whose role needs to be found.
-     * @return An Optional containing the Role object if found, or an empty Optional if not found.
-     */
-    @Query(nativeQuery = true, value = "SELECT `role` FROM cards.`_user` WHERE email = :email ")
-    Optional<Role> findRoleByEmail(@Param("email") String email);
     /**
      * Check if an email address exists in the database.
+     * An {@code EXISTS} probe of the unique email index, which stops at the first match instead of counting them.
      *
      * @param email The email address to check for existence.
      * @return true if the email exists, false otherwise.
      */
-    @Query(nativeQuery = true, value = "SELECT if(count(email) > 0, 'true', 'false') FROM cards.`_user` WHERE email = :email")
-    Boolean emailExists(@Param("email") String email);
+    @Query("SELECT CASE WHEN EXISTS (SELECT 1 FROM _user u WHERE u.email = :email) THEN TRUE ELSE FALSE END")
+    boolean emailExists(@Param("email") String email);
+
+    /**
+     * Replaces the password hash of a user, leaving the other columns as they are in the database.
+     *
+     * @param userId   The ID of the user.
+     * @param password The new password hash.
+     * @return The number of updated users, 0 if the user does not exist.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE _user u SET u.password = :password WHERE u.id = :userId")
+    int updatePassword(@Param("userId") Integer userId, @Param("password") String password);
+
+    /**
+     * Finds the token versions of every user whose tokens have been revoked at least once.
+     *
+     * @return The id and token version of each user with a token version above zero.
+     */
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM _user u WHERE u.tokenVersion > 0")
+    List<UserTokenVersion> findRevokedTokenVersions();
+
+    /**
+     * Increments the token version of a user, revoking every token issued to the user so far.
+     *
+     * @param userId The ID of the user.
+     * @return The number of updated users, 0 if the user does not exist.
+     */
+    @Modifying
+    @Query("UPDATE _user u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :userId")
+    int incrementTokenVersion(@Param("userId") Integer userId);
+
     /**
-     * Find the user ID of a user by their email address.
+     * Finds the current token version of a user.
      *
-     * @param email The email address of the user whose ID needs to be found.
-     * @return An Optional containing the user ID if found, or an empty Optional if not found.
+     * @param userId The ID of the user.
+     * @return The token version of the user.
      */
-    @Query(nativeQuery = true, value = "SELECT `id` FROM cards.`_user` WHERE email = :email ")
-    Optional<Integer> findUserIdByEmail(String email);
-}
\ No newline at end of file
+    @Query("SELECT u.tokenVersion FROM _user u WHERE u.id = :userId")
+    int findTokenVersion(@Param("userId") Integer userId);
+
+    /**
+     * Projection of the token version of a user.
+     */
+    interface UserTokenVersion {
+        Integer getId();
+
+        int getTokenVersion();
+    }
+}
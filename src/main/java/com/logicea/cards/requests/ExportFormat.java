@@ -0,0 +1,40 @@
+package com.logicea.cards.requests;
+
+import org.springframework.http.MediaType;
+
+import com.logicea.cards.exceptions.InvalidCriteria;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Formats of a card export.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    /**
+     * One JSON card per line
+     */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    /**
+     * Comma separated values with a header line
+     */
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    private final MediaType mediaType;
+
+    /**
+     * @param format The name of the format, case insensitive.
+     * @return The format with the given name.
+     * @throws InvalidCriteria If there is no such format.
+     */
+    public static ExportFormat of(String format) {
+        for (ExportFormat exportFormat : values()) {
+            if (exportFormat.name().equalsIgnoreCase(format)) {
+                return exportFormat;
+            }
+        }
+        throw new InvalidCriteria(String.format("Given format is not correct %s. Accepted values:[ndjson, csv]", format));
+    }
+}
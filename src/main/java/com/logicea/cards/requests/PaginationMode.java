@@ -0,0 +1,15 @@
+package com.logicea.cards.requests;
+
+/**
+ * Pagination modes of a search.
+ */
+public enum PaginationMode {
+    /**
+     * Page number and size, with the total count of results
+     */
+    OFFSET,
+    /**
+     * Keyset pagination through an opaque cursor, without total count
+     */
+    CURSOR
+}
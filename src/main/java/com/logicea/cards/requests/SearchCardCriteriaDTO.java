@@ -22,4 +22,23 @@ public class SearchCardCriteriaDTO {
     private Integer page = 0;
     private Integer size = 10;
     private List<SortByDTO> sortMap;
+    /**
+     * Pagination mode of the search, {@link PaginationMode#CURSOR} is implied when a cursor is given
+     */
+    private PaginationMode pagination = PaginationMode.OFFSET;
+    /**
+     * Opaque continuation token returned with the previous page in cursor mode
+     */
+    private String cursor;
+    /**
+     * Whether an offset search also returns the total number of matching cards, which may cost a count query
+     */
+    private boolean withTotal = true;
+
+    /**
+     * @return true if the search should be paginated by cursor instead of offset.
+     */
+    public boolean isCursorMode() {
+        return cursor != null || PaginationMode.CURSOR.equals(pagination);
+    }
 }
\ No newline at end of file
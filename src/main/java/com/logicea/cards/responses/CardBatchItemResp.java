@@ -0,0 +1,21 @@
+package com.logicea.cards.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch request.
+ * The status is the HTTP status the item would have had as a single request, the error is only set on failure.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardBatchItemResp {
+    int index;
+    Integer cardId;
+    int status;
+    String error;
+}
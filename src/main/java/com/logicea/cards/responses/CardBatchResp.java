@@ -0,0 +1,21 @@
+package com.logicea.cards.responses;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Report of a batch request: one item per element of the request, in the same order.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardBatchResp {
+    int succeeded;
+    int failed;
+    List<CardBatchItemResp> items;
+}
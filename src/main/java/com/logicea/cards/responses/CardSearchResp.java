@@ -0,0 +1,79 @@
+package com.logicea.cards.responses;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.logicea.cards.models.CardView;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cards returned by a search, in both pagination modes.
+ * An offset search sets the page number and, when asked for, the total number of matching cards, a cursor search sets
+ * the cursor of the next slice when there is one. Fields which are not set are left out of the JSON.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"items", "page", "size", "total", "hasNext", "nextCursor"})
+public class CardSearchResp {
+    List<CardView> items;
+    Integer page;
+    int size;
+    Long total;
+    boolean hasNext;
+    String nextCursor;
+
+    /**
+     * @param page  A page of an offset search.
+     * @param total The total number of matching cards, or null when it was not asked for.
+     * @return The response of the page, with its number, requested size and total.
+     */
+    public static CardSearchResp of(Slice<CardView> page, Long total) {
+        return CardSearchResp.builder()
+                .items(page.getContent())
+                .page(page.getNumber())
+                .size(page.getSize())
+                .total(total)
+                .hasNext(page.hasNext())
+                .build();
+    }
+
+    /**
+     * Derives the strong entity tag of the response from the ids and versions of its cards and its paging fields,
+     * which determine its body, so it is computed without serializing the response.
+     *
+     * @return The entity tag, e.g. {@code "Xq3mU0nqGJj1Ge9Mcn8vQA"}.
+     */
+    public String eTag() {
+        ByteBuffer buffer = ByteBuffer.allocate(25 + 12 * items.size());
+        buffer.putInt(page == null ? -1 : page).putInt(size).putLong(total == null ? -1 : total).put((byte) (hasNext ? 1 : 0));
+        for (CardView card : items) {
+            buffer.putInt(card.id()).putLong(card.version());
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(buffer.array(), 0, buffer.position());
+            if (nextCursor != null) {
+                digest.update(nextCursor.getBytes(StandardCharsets.US_ASCII));
+            }
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,18 +1,20 @@
 package com.logicea.cards.services;
 
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.logicea.cards.exceptions.EmailAlreadyExist;
+import com.logicea.cards.models.AuthorizationContext;
 import com.logicea.cards.models.User;
 import com.logicea.cards.repositories.UserRepository;
 import com.logicea.cards.requests.AuthenticationDTO;
 import com.logicea.cards.requests.RegisterUserDTO;
 import com.logicea.cards.responses.AuthResp;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -21,16 +23,21 @@ import lombok.extern.slf4j.Slf4j;
  * It provides methods to register new users and authenticate existing users using JWT-based authentication.
  */
 @Service
+@Timed("cards.auth")
 @RequiredArgsConstructor
 @Slf4j
 public class AuthenticationService {
     private final UserRepository userRepository;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     /**
      * Registers a new user based on the provided registration request.
+     * The unique index on the email is the only existence check: the user is inserted in a single statement and a
+     * duplicate email surfaces as a constraint violation, so concurrent registrations of the same email cannot both
+     * succeed.
      *
      * @param request The RegisterReq object containing user registration information.
      * @return An AuthResp object containing the JWT token generated for the registered user.
@@ -45,25 +52,48 @@ public class AuthenticationService {
                 .role(request.getRole())
                 .password(passwordEncoder.encode(request.getPassword()))
                 .build();
-        if (userRepository.emailExists(request.getEmail())) {
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            // The email is the only unique column besides the generated id, and the other constraints are validated
+            // on the request already.
             throw new EmailAlreadyExist("Email already exist");
         }
-        userRepository.save(user);
         return new AuthResp(jwtService.generateToken(user));
     }
 
     /**
      * Authenticates an existing user based on the provided authentication request.
+     * The user is loaded once and its password checked directly; a hash of a lower strength than configured is replaced
+     * by a hash of the current strength.
      *
      * @param request The AuthenticationReq object containing user authentication information.
      * @return An AuthResp object containing the JWT token generated for the authenticated user.
      * @throws UsernameNotFoundException If the provided email does not exist in the database.
      *                                   This indicates that the user with the given email is not registered.
-     *                                   Invalid credentials will lead to this exception.
+     * @throws BadCredentialsException   If the password does not match.
+     * @throws com.logicea.cards.exceptions.PasswordHashingBusy If too many logins are in progress.
      */
     public AuthResp authenticate(AuthenticationDTO request) {
         var user = userRepository.findByEmail(request.getEmail()).orElseThrow(() -> new UsernameNotFoundException("Invalid credentials"));
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            throw new BadCredentialsException("Invalid credentials");
+        }
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            // Only the hash is written: saving the whole user would undo a revocation committed since it was loaded
+            userRepository.updatePassword(user.getId(), passwordEncoder.encode(request.getPassword()));
+            log.info("Rehashed the password of user {} with the current strength", user.getId());
+        }
         return new AuthResp(jwtService.generateToken(user));
     }
-}
\ No newline at end of file
+
+    /**
+     * Revokes every token issued so far to the authenticated user, including the one of the current request.
+     *
+     * @param authContext The authorization context of the authenticated user.
+     */
+    public void revokeTokens(AuthorizationContext authContext) {
+        tokenVersionRegistry.revoke(authContext.userId());
+        verifiedTokenCache.invalidate(authContext.userId());
+    }
+}
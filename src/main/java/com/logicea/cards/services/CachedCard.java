@@ -0,0 +1,75 @@
+package com.logicea.cards.services;
+
+import java.time.LocalDateTime;
+
+import com.logicea.cards.models.AuthorizationContext;
+import com.logicea.cards.models.Card;
+import com.logicea.cards.models.CardVersion;
+import com.logicea.cards.models.CardView;
+import com.logicea.cards.models.Status;
+
+/**
+ * Immutable snapshot of a {@link Card} held by a {@link CardCache}.
+ * It carries the id of the owner, so permission checks are answered from the cache as well, and only plain values,
+ * so it can be shared between threads and stored outside the JVM.
+ *
+ * @param id               The unique identifier of the card.
+ * @param name             The name of the card.
+ * @param description      The description of the card.
+ * @param color            The color of the card.
+ * @param creationDate     The creation date of the card.
+ * @param status           The status of the card.
+ * @param ownerId          The ID of the user who owns the card.
+ * @param version          The version of the card.
+ * @param modificationDate The modification date of the card.
+ */
+public record CachedCard(Integer id,
+                         String name,
+                         String description,
+                         String color,
+                         LocalDateTime creationDate,
+                         Status status,
+                         Integer ownerId,
+                         Long version,
+                         LocalDateTime modificationDate) {
+
+    /**
+     * @param card A card loaded from the database; its owner does not need to be initialized.
+     * @return The snapshot of the card.
+     */
+    public static CachedCard of(Card card) {
+        return new CachedCard(card.getId(), card.getName(), card.getDescription(), card.getColor(),
+                card.getCreationDate(), card.getStatus(), card.getUser().getId(), card.getVersion(), card.getModificationDate());
+    }
+
+    /**
+     * @param view A card read from the database.
+     * @return The snapshot of the card.
+     */
+    public static CachedCard of(CardView view) {
+        return new CachedCard(view.id(), view.name(), view.description(), view.color(), view.creationDate(),
+                view.status(), view.ownerId(), view.version(), view.modificationDate());
+    }
+
+    /**
+     * @param authContext The authorization context of the user accessing the card.
+     * @return Whether the user is an admin or the owner of the card.
+     */
+    public boolean isAccessibleBy(AuthorizationContext authContext) {
+        return authContext.isAdmin() || ownerId.equals(authContext.userId());
+    }
+
+    /**
+     * @return The read only view of the snapshot.
+     */
+    public CardView toView() {
+        return new CardView(id, name, description, color, creationDate, status, ownerId, version, modificationDate);
+    }
+
+    /**
+     * @return The HTTP validators of the snapshot.
+     */
+    public CardVersion toVersion() {
+        return new CardVersion(version, CardVersion.lastModified(modificationDate, creationDate), ownerId);
+    }
+}
@@ -0,0 +1,43 @@
+package com.logicea.cards.services;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Read through cache of cards in front of {@link com.logicea.cards.repositories.CardRepository#findById(Object)}.
+ * The implementation is chosen by {@code cards.card-cache.type}: {@code local} (default) keeps the cards in process,
+ * {@code none} disables caching, e.g. when several instances run without a shared store.
+ */
+public interface CardCache {
+
+    /**
+     * Returns the cached card, loading it on a miss. Concurrent misses of the same card load it once.
+     *
+     * @param cardId The unique identifier of the card.
+     * @param loader Loads the card from the database, returning null if it does not exist.
+     * @return The card, or null if it does not exist. Missing cards are not cached.
+     */
+    CachedCard get(Integer cardId, Function<Integer, CachedCard> loader);
+
+    /**
+     * Returns the cached card without loading it on a miss.
+     *
+     * @param cardId The unique identifier of the card.
+     * @return The card, or null if it is not cached.
+     */
+    CachedCard getIfPresent(Integer cardId);
+
+    /**
+     * Stores the given cards, replacing their previous values.
+     *
+     * @param cards The cards which were written.
+     */
+    void putAll(Collection<CachedCard> cards);
+
+    /**
+     * Drops the given cards.
+     *
+     * @param cardIds The unique identifiers of the cards which were deleted.
+     */
+    void invalidateAll(Collection<Integer> cardIds);
+}
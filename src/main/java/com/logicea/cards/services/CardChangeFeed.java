@@ -0,0 +1,296 @@
+package com.logicea.cards.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logicea.cards.models.AuthorizationContext;
+import com.logicea.cards.models.CardChange;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In process bus of card changes, streamed to its subscribers as server-sent events. Only the changes committed by
+ * this instance are published; each subscriber receives the changes of its own cards, admins the changes of all cards.
+ * <p>
+ * Events are serialized once when published and kept in a ring of the last {@code cards.changes.replay-size} events,
+ * so a subscriber reconnecting with the id of the last event it received gets the events it missed. When they are no
+ * longer in the ring, or were published before a restart, it gets a {@code reset} event and must read its cards again.
+ * <p>
+ * Idle subscribers hold no thread: each one has a queue of at most {@code cards.changes.subscriber-queue-size} events,
+ * drained by one task at a time on the {@code cards.changes.writer-threads} writer threads shared by all subscribers.
+ * A subscriber whose queue is full, because it reads slower than cards change or its connection is dead, is evicted:
+ * its stream is completed and it has to reconnect. Heartbeat comments every {@code cards.changes.heartbeat-interval}
+ * keep idle connections open through proxies and reveal dead ones.
+ * <p>
+ * The number of subscribers and of evictions are published as {@code cards.changes.subscribers} and
+ * {@code cards.changes.evictions}.
+ */
+@Service
+@Slf4j
+public class CardChangeFeed implements MeterBinder, DisposableBean {
+    private static final int WRITE_BATCH_SIZE = 64;
+    private static final FeedEvent HEARTBEAT = new FeedEvent(0, null, null);
+    private static final FeedEvent RESET = new FeedEvent(-1, null, null);
+
+    private final ObjectMapper objectMapper;
+    private final FeedEvent[] recentEvents;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final ExecutorService writer;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong evictions = new AtomicLong();
+    private long lastSequence;
+
+    public CardChangeFeed(ObjectMapper objectMapper,
+                          @Value("${cards.changes.replay-size:1024}") int replaySize,
+                          @Value("${cards.changes.subscriber-queue-size:256}") int queueCapacity,
+                          @Value("${cards.changes.writer-threads:4}") int writerThreads,
+                          @Value("${cards.changes.timeout:PT30M}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.recentEvents = new FeedEvent[replaySize];
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeout.toMillis();
+        this.writer = Executors.newFixedThreadPool(writerThreads, new CustomizableThreadFactory("card-changes-"));
+    }
+
+    /**
+     * Publishes a committed change to the subscribers allowed to see it.
+     *
+     * @param change The change of a card.
+     */
+    public void publish(CardChange change) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize the change of card " + change.cardId(), e);
+        }
+        // Under the lock, so that every subscriber queues the events in the order of their ids
+        synchronized (this) {
+            FeedEvent event = new FeedEvent(++lastSequence, change, data);
+            recentEvents[(int) (event.sequence() % recentEvents.length)] = event;
+            subscriptions.forEach(subscription -> subscription.offer(event));
+        }
+    }
+
+    /**
+     * Subscribes to the changes of the cards the user can access.
+     *
+     * @param authContext The authorization context of the subscriber.
+     * @param lastEventId The id of the last event received before reconnecting, or null for new changes only.
+     * @return The stream of events, completed after {@code cards.changes.timeout} or when the subscriber is evicted.
+     */
+    public SseEmitter subscribe(AuthorizationContext authContext, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(emitter, authContext);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+        emitter.onTimeout(emitter::complete);
+        synchronized (this) {
+            if (lastEventId != null) {
+                replay(subscription, lastEventId);
+            }
+            subscriptions.add(subscription);
+        }
+        subscription.schedule();
+        return emitter;
+    }
+
+    /**
+     * Sends a heartbeat comment to every subscriber.
+     */
+    @Scheduled(fixedDelayString = "${cards.changes.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        subscriptions.forEach(subscription -> subscription.offer(HEARTBEAT));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cards.changes.subscribers", subscriptions, Set::size)
+                .description("Subscribers of the card change feed")
+                .register(registry);
+        FunctionCounter.builder("cards.changes.evictions", evictions, AtomicLong::get)
+                .description("Subscribers of the card change feed evicted for reading too slowly")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+        writer.shutdown();
+    }
+
+    /**
+     * Queues the events the subscriber missed since the given event, or a reset if they are no longer known.
+     */
+    private void replay(Subscription subscription, String lastEventId) {
+        long after = sequenceOf(lastEventId);
+        long oldest = Math.max(1, lastSequence - recentEvents.length + 1);
+        if (after < oldest - 1 || after > lastSequence) {
+            subscription.replay(RESET);
+            return;
+        }
+        for (long sequence = after + 1; sequence <= lastSequence; sequence++) {
+            subscription.replay(recentEvents[(int) (sequence % recentEvents.length)]);
+        }
+    }
+
+    /**
+     * @return The sequence of an event id of this instance, or -1 if it was issued before a restart or is invalid.
+     */
+    private long sequenceOf(String eventId) {
+        int separator = eventId.indexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Event of the feed.
+     *
+     * @param sequence The position of the event in the feed, 0 for heartbeats and -1 for resets.
+     * @param change   The change of the event, null for heartbeats and resets.
+     * @param data     The change serialized as JSON.
+     */
+    private record FeedEvent(long sequence, CardChange change, String data) {
+        SseEmitter.SseEventBuilder toSse(String epoch) {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            if (this == RESET) {
+                return SseEmitter.event().name("reset").data("reset");
+            }
+            return SseEmitter.event().id(epoch + "-" + sequence).name(change.type().name()).data(data);
+        }
+    }
+
+    /**
+     * Subscriber of the feed, with its queue of events waiting to be written.
+     */
+    private final class Subscription implements Runnable {
+        private final SseEmitter emitter;
+        private final AuthorizationContext authContext;
+        private final ArrayDeque<FeedEvent> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean evicted;
+
+        private Subscription(SseEmitter emitter, AuthorizationContext authContext) {
+            this.emitter = emitter;
+            this.authContext = authContext;
+        }
+
+        /**
+         * Queues a live event, evicting the subscriber if its queue is full.
+         */
+        void offer(FeedEvent event) {
+            if (event.change() != null && !event.change().isVisibleTo(authContext)) {
+                return;
+            }
+            synchronized (queue) {
+                if (evicted) {
+                    return;
+                }
+                if (queue.size() < queueCapacity) {
+                    queue.add(event);
+                } else {
+                    evict();
+                }
+            }
+            schedule();
+        }
+
+        /**
+         * Queues a missed event, whatever the size of the queue: there are at most as many as the replay size.
+         */
+        void replay(FeedEvent event) {
+            if (event.change() == null || event.change().isVisibleTo(authContext)) {
+                synchronized (queue) {
+                    queue.add(event);
+                }
+            }
+        }
+
+        /**
+         * Submits the writing of the queue unless it is already being written.
+         */
+        void schedule() {
+            synchronized (queue) {
+                if (draining || (queue.isEmpty() && !evicted)) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                writer.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Shutting down, the stream is completed by destroy
+            }
+        }
+
+        /**
+         * Writes the queued events, yielding to the other subscribers after a batch.
+         */
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < WRITE_BATCH_SIZE; i++) {
+                    FeedEvent event;
+                    boolean complete;
+                    synchronized (queue) {
+                        complete = evicted;
+                        event = complete ? null : queue.poll();
+                        if (event == null) {
+                            draining = false;
+                        }
+                    }
+                    if (complete) {
+                        emitter.complete();
+                    }
+                    if (event == null) {
+                        return;
+                    }
+                    emitter.send(event.toSse(epoch));
+                }
+                writer.execute(this);
+            } catch (IOException | IllegalStateException | RejectedExecutionException e) {
+                // The client went away or the stream was completed, completing it releases the request
+                subscriptions.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            queue.clear();
+            subscriptions.remove(this);
+            evictions.incrementAndGet();
+            log.info("Evicted change feed subscriber {} with {} undelivered events", authContext.userId(), queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.logicea.cards.services;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.logicea.cards.repositories.CardSearchFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Short lived cache of the number of cards matching a search filter, so that paging through the results of a search
+ * counts them once instead of on every page. The filter holds the owner of the searched cards, so entries are per user
+ * and filter (admins, who search all cards, share theirs).
+ * Writes do not invalidate the entries: a total may lag behind the cards by up to the ttl, which bounds the staleness.
+ * Hits, misses, evictions and size are published as the {@code cache.*} meters with the tag {@code cache=card-counts}.
+ */
+@Service
+public class CardCountCache implements MeterBinder {
+    private final Cache<CardSearchFilter, Long> cache;
+
+    public CardCountCache(@Value("${cards.search.count-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${cards.search.count-cache.ttl:PT10S}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached number of cards matching the filter, counting them on a miss. Concurrent misses of the same
+     * filter wait for a single count.
+     *
+     * @param filter  The filters of the search.
+     * @param counter The count query of the filter.
+     * @return The number of cards that match the filter.
+     */
+    public long count(CardSearchFilter filter, Function<CardSearchFilter, Long> counter) {
+        return cache.get(filter, counter);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "card-counts");
+    }
+}
@@ -0,0 +1,21 @@
+package com.logicea.cards.services;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.logicea.cards.models.CardOutboxEvent;
+
+/**
+ * Destination of the card changes relayed from the outbox, selected by {@code cards.outbox.sink}.
+ */
+public interface CardEventSink {
+
+    /**
+     * Publishes a batch of changes. The batch is marked as sent only if this returns normally; otherwise it is
+     * published again by a later poll, so changes may be delivered more than once but never lost.
+     *
+     * @param events The changes, oldest first.
+     * @throws IOException If the changes cannot be published.
+     */
+    void publish(List<CardOutboxEvent> events) throws IOException;
+}
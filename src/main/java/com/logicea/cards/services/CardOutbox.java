@@ -0,0 +1,63 @@
+package com.logicea.cards.services;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logicea.cards.models.CardChange;
+import com.logicea.cards.models.CardOutboxEvent;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Transactional outbox of card changes: each change is written as a row in the transaction which makes it, so it is
+ * relayed downstream by {@link CardOutboxRelay} if and only if that transaction commits. Disabled by
+ * {@code cards.outbox.enabled=false}.
+ * <p>
+ * The row is a deliberate cost of every write: one more insert, committed with the change. It is persisted with the
+ * entity manager rather than through {@code CardOutboxRepository}, whose proxy would add its invocation metrics and
+ * a nested transaction to each write.
+ */
+@Service
+public class CardOutbox {
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CardOutbox(ObjectMapper objectMapper,
+                      @Value("${cards.outbox.enabled:true}") boolean enabled) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records changes in the outbox. The rows are inserted with the other writes of the transaction when it flushes,
+     * in JDBC batches.
+     *
+     * @param changes The changes made by the current transaction.
+     * @throws jakarta.persistence.TransactionRequiredException If there is no current transaction.
+     */
+    public void record(List<CardChange> changes) {
+        if (!enabled || changes.isEmpty()) {
+            return;
+        }
+        LocalDateTime createdAt = LocalDateTime.now();
+        for (CardChange change : changes) {
+            entityManager.persist(CardOutboxEvent.of(change, serialize(change), createdAt));
+        }
+    }
+
+    private String serialize(CardChange change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize the change of card " + change.cardId(), e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.logicea.cards.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.logicea.cards.models.CardOutboxEvent;
+import com.logicea.cards.repositories.CardOutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Background relay of the card outbox to the {@link CardEventSink}.
+ * Every {@code cards.outbox.poll-interval} it claims the oldest unsent changes by batches of
+ * {@code cards.outbox.batch-size} with {@code FOR UPDATE SKIP LOCKED}, publishes them and marks them sent with a
+ * single update, in one transaction per batch. It keeps polling while batches come back full, up to
+ * {@code cards.outbox.max-batches-per-poll}, so a backlog drains without holding its scheduler thread forever.
+ * A batch the sink fails to publish is rolled back and published again by the next poll.
+ * <p>
+ * Polls and purges run on a scheduler thread of their own, rather than the single thread shared by the
+ * {@code @Scheduled} tasks, so that draining a backlog or purging a large table does not delay the refresh of the
+ * revoked tokens, the replica lag checks, the key file checks or the change feed heartbeats.
+ * <p>
+ * Published as {@code cards.outbox.lag} (time from the change to its publication), {@code cards.outbox.backlog.age}
+ * (age of the oldest change left unsent by the last poll, 0 when it caught up), {@code cards.outbox.relayed} and
+ * {@code cards.outbox.failures}. Sent changes are purged after {@code cards.outbox.retention}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "cards.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class CardOutboxRelay implements InitializingBean, DisposableBean {
+    private final CardOutboxRepository cardOutboxRepository;
+    private final CardEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final Duration retention;
+    private final Duration pollInterval;
+    private final Duration purgeInterval;
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    private final Timer lag;
+    private final Counter relayed;
+    private final Counter failures;
+    private volatile LocalDateTime backlogSince;
+
+    public CardOutboxRelay(CardOutboxRepository cardOutboxRepository,
+                           CardEventSink sink,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${cards.outbox.batch-size:500}") int batchSize,
+                           @Value("${cards.outbox.max-batches-per-poll:20}") int maxBatchesPerPoll,
+                           @Value("${cards.outbox.retention:P7D}") Duration retention,
+                           @Value("${cards.outbox.poll-interval:PT1S}") Duration pollInterval,
+                           @Value("${cards.outbox.purge-interval:PT1H}") Duration purgeInterval,
+                           MeterRegistry meterRegistry) {
+        this.cardOutboxRepository = cardOutboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.retention = retention;
+        this.pollInterval = pollInterval;
+        this.purgeInterval = purgeInterval;
+        this.lag = Timer.builder("cards.outbox.lag")
+                .description("Time from a card change to its publication by the outbox relay")
+                .register(meterRegistry);
+        this.relayed = Counter.builder("cards.outbox.relayed")
+                .description("Card changes published by the outbox relay")
+                .register(meterRegistry);
+        this.failures = Counter.builder("cards.outbox.failures")
+                .description("Batches of card changes the outbox relay failed to publish")
+                .register(meterRegistry);
+        Gauge.builder("cards.outbox.backlog.age", this, CardOutboxRelay::backlogAgeSeconds)
+                .description("Age of the oldest card change left unsent by the last poll of the outbox relay")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts polling and purging on the scheduler thread of the relay; a failed run is logged and retried at the next
+     * interval.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("card-outbox-");
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::relay, pollInterval);
+        scheduler.scheduleWithFixedDelay(this::purge, purgeInterval);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Relays the unsent changes, batch after batch while they come back full.
+     */
+    public void relay() {
+        for (int i = 0; i < maxBatchesPerPoll; i++) {
+            if (relayBatch() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claims, publishes and marks sent one batch of changes.
+     *
+     * @return The number of changes relayed, 0 if there were none or the sink failed.
+     */
+    public int relayBatch() {
+        List<CardOutboxEvent> events;
+        try {
+            events = transactionTemplate.execute(status -> {
+                List<CardOutboxEvent> claimed = cardOutboxRepository.claimUnsent(PageRequest.of(0, batchSize));
+                if (claimed.isEmpty()) {
+                    return claimed;
+                }
+                try {
+                    sink.publish(claimed);
+                } catch (IOException e) {
+                    backlogSince = claimed.get(0).getCreatedAt();
+                    throw new IllegalStateException("Cannot publish " + claimed.size() + " card changes", e);
+                }
+                cardOutboxRepository.markSent(claimed.stream().map(CardOutboxEvent::getId).toList(), LocalDateTime.now());
+                return claimed;
+            });
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Could not relay the card outbox, retrying on the next poll", e);
+            return 0;
+        }
+        record(events);
+        return events.size();
+    }
+
+    /**
+     * Deletes the changes sent longer than {@code cards.outbox.retention} ago.
+     */
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status ->
+                cardOutboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention)));
+        log.debug("Purged {} sent card changes", deleted);
+    }
+
+    /**
+     * Records the lag of a committed batch; after a full batch, more changes may still be waiting.
+     */
+    private void record(List<CardOutboxEvent> events) {
+        backlogSince = events.size() < batchSize ? null : events.get(events.size() - 1).getCreatedAt();
+        LocalDateTime sentAt = LocalDateTime.now();
+        for (CardOutboxEvent event : events) {
+            lag.record(Duration.between(event.getCreatedAt(), sentAt).toNanos(), TimeUnit.NANOSECONDS);
+        }
+        relayed.increment(events.size());
+    }
+
+    private double backlogAgeSeconds() {
+        LocalDateTime since = backlogSince;
+        return since == null ? 0 : Duration.between(since, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
@@ -1,150 +1,561 @@
 package com.logicea.cards.services;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.logicea.cards.configs.ReplicaRoutingDataSource;
 import com.logicea.cards.exceptions.CardNotFoundException;
+import com.logicea.cards.exceptions.InvalidBatch;
 import com.logicea.cards.exceptions.InvalidCriteria;
+import com.logicea.cards.exceptions.PreconditionFailed;
 import com.logicea.cards.exceptions.ResourcesNotPermitted;
+import com.logicea.cards.models.AuthorizationContext;
 import com.logicea.cards.models.Card;
-import com.logicea.cards.models.Role;
+import com.logicea.cards.models.CardChange;
+import com.logicea.cards.models.CardVersion;
+import com.logicea.cards.models.CardView;
 import com.logicea.cards.models.Status;
+import com.logicea.cards.models.User;
+import com.logicea.cards.repositories.CardOwner;
 import com.logicea.cards.repositories.CardRepository;
+import com.logicea.cards.repositories.CardSearchFilter;
 import com.logicea.cards.repositories.UserRepository;
 import com.logicea.cards.requests.CreateCardDTO;
 import com.logicea.cards.requests.SearchCardCriteriaDTO;
 import com.logicea.cards.requests.UpdateCardDTO;
+import com.logicea.cards.responses.CardBatchItemResp;
+import com.logicea.cards.responses.CardBatchResp;
+import com.logicea.cards.responses.CardSearchResp;
+import com.logicea.cards.utils.CardExportWriter;
+import com.logicea.cards.utils.CursorUtils;
 import com.logicea.cards.utils.EntityUtils;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 /**
  * By using this service you can CRUD  & search for a {@link Card}
  */
 @Service
+@Timed("cards.service")
 @RequiredArgsConstructor
 public class CardService {
 	private final CardRepository cardRepository;
 	private final UserRepository userRepository;
+	private final Validator validator;
+	private final CardCache cardCache;
+	private final CardCountCache cardCountCache;
+	private final CardChangeFeed cardChangeFeed;
+	private final CardOutbox cardOutbox;
+	@Value("${cards.batch.max-size:1000}")
+	private int maxBatchSize;
+	@Value("${cards.export.fetch-size:500}")
+	private int exportFetchSize;
 
 	/**
-	 * Creates a new card with the provided information and associates it with the user identified by the given email.
+	 * Creates a new card with the provided information and associates it with the authenticated user.
 	 *
 	 * @param createCardDTO The DTO (Data Transfer Object) containing the information to create the card.
-	 * @param email         The email of the user who is creating the card.
+	 * @param authContext   The authorization context of the user who is creating the card.
 	 * @return The newly created card.
 	 */
-	public Card createCard(CreateCardDTO createCardDTO, String email) {
-		var currentUser = userRepository.findByEmail(email)
-				.orElseThrow(() -> new UsernameNotFoundException("User not found"));
+	@Transactional
+	public Card createCard(CreateCardDTO createCardDTO, AuthorizationContext authContext) {
 		var cardToBeStored = Card.builder()
 				.name(createCardDTO.getName())
 				.description(createCardDTO.getDescription())
 				.color(createCardDTO.getColor())
 				.status(Status.TODO)
 				.creationDate(LocalDateTime.now())
-				.user(currentUser)
+				.user(userRepository.getReferenceById(authContext.userId()))
 				.build();
-		return cardRepository.save(cardToBeStored);
+		Card storedCard = cardRepository.save(cardToBeStored);
+		publish(List.of(CardChange.created(storedCard)));
+		return storedCard;
 	}
 
 	/**
-	 * Retrieves the card with the specified cardId, ensuring that the user identified by the given email has
-	 * appropriate permissions to access the card.
+	 * Retrieves the card with the specified cardId, ensuring that the authenticated user has appropriate
+	 * permissions to access the card. The card and its owner are read through the {@link CardCache}, a miss being loaded
+	 * as a projection in a read only transaction on the primary, since the entry is served to every user until it
+	 * expires.
 	 *
-	 * @param cardId The unique identifier of the card to retrieve.
-	 * @param email  The email of the user who wants to access the card.
+	 * @param cardId      The unique identifier of the card to retrieve.
+	 * @param authContext The authorization context of the user who wants to access the card.
 	 * @return The card with the provided cardId.
 	 * @throws CardNotFoundException If the card with the given cardId does not exist.
 	 * @throws ResourcesNotPermitted If the user does not have permission to access the card.
 	 */
-	public Card readCard(Integer cardId, String email) {
-		areUserAllowedToAccessCard(cardId, email);
-		return cardRepository.findById(cardId).get();
+	public CardView readCard(Integer cardId, AuthorizationContext authContext) {
+		// No transaction: a cache hit must not borrow a connection
+		CachedCard card = cardCache.get(cardId, id -> ReplicaRoutingDataSource.onPrimary(() -> cardRepository.findViewById(id))
+				.map(CachedCard::of).orElse(null));
+		if (card == null) {
+			throw new CardNotFoundException("Card with given id not found");
+		}
+		if (!card.isAccessibleBy(authContext)) {
+			throw notPermitted(cardId);
+		}
+		return card.toView();
+	}
+
+	/**
+	 * Retrieves the HTTP validators of the card with the specified cardId, to answer a conditional read without reading
+	 * the card: they come from the {@link CardCache} on a hit, from a version only query in a read only transaction
+	 * otherwise.
+	 *
+	 * @param cardId      The unique identifier of the card.
+	 * @param authContext The authorization context of the user who wants to access the card.
+	 * @return The version and modification date of the card.
+	 * @throws CardNotFoundException If the card with the given cardId does not exist.
+	 * @throws ResourcesNotPermitted If the user does not have permission to access the card.
+	 */
+	public CardVersion readCardVersion(Integer cardId, AuthorizationContext authContext) {
+		// No transaction: a cache hit must not borrow a connection
+		CachedCard cachedCard = cardCache.getIfPresent(cardId);
+		CardVersion version = cachedCard != null
+				? cachedCard.toVersion()
+				: cardRepository.findVersionById(cardId).orElseThrow(() -> new CardNotFoundException("Card with given id not found"));
+		if (!version.isAccessibleBy(authContext)) {
+			throw notPermitted(cardId);
+		}
+		return version;
 	}
 
 	/**
-	 * Updates the card with the information provided in the UpdateCardDTO, ensuring that the user identified by the
-	 * given email has appropriate permissions to update the card.
+	 * Updates the card with the information provided in the UpdateCardDTO, ensuring that the authenticated user has
+	 * appropriate permissions to update the card. The update is flushed before returning, so the card carries its new
+	 * version; a concurrent update of the same card makes it fail with an
+	 * {@link org.springframework.dao.OptimisticLockingFailureException}.
 	 *
-	 * @param dto   The DTO containing the updated information for the card.
-	 * @param email The email of the user who is updating the card.
+	 * @param dto         The DTO containing the updated information for the card.
+	 * @param authContext The authorization context of the user who is updating the card.
+	 * @param ifMatch     The entity tags of the {@code If-Match} header of the request, empty if there is none.
 	 * @return The updated card.
 	 * @throws CardNotFoundException If the card with the given cardId does not exist.
 	 * @throws ResourcesNotPermitted If the user does not have permission to update the card.
+	 * @throws PreconditionFailed    If the entity tag of the card is not one of the given ones.
 	 */
-	public Card updateCard(UpdateCardDTO dto, String email) {
-		Card card = readCard(dto.getCardId(), email);
+	@Transactional
+	public Card updateCard(UpdateCardDTO dto, AuthorizationContext authContext, List<String> ifMatch) {
+		Card card = findAccessibleCard(dto.getCardId(), authContext);
+		checkIfMatch(card, ifMatch);
 		card.setName(dto.getName());
 		card.setDescription(dto.getDescription());
 		card.setColor(dto.getColor());
 		card.setStatus(dto.getStatus());
-		return cardRepository.save(card);
+		Card updatedCard = cardRepository.saveAndFlush(card);
+		List<CachedCard> cachedCards = List.of(CachedCard.of(updatedCard));
+		afterCommit(() -> cardCache.putAll(cachedCards));
+		publish(List.of(CardChange.updated(updatedCard)));
+		return updatedCard;
 	}
 
 	/**
-	 * Deletes the card with the specified cardId, ensuring that the user identified by the given email has
-	 * appropriate permissions to delete the card.
+	 * Deletes the card with the specified cardId, ensuring that the authenticated user has appropriate permissions
+	 * to delete the card.
 	 *
-	 * @param cardId The unique identifier of the card to delete.
-	 * @param email  The email of the user who wants to delete the card.
+	 * @param cardId      The unique identifier of the card to delete.
+	 * @param authContext The authorization context of the user who wants to delete the card.
+	 * @param ifMatch     The entity tags of the {@code If-Match} header of the request, empty if there is none.
 	 * @throws CardNotFoundException If the card with the given cardId does not exist.
 	 * @throws ResourcesNotPermitted If the user does not have permission to delete the card.
+	 * @throws PreconditionFailed    If the entity tag of the card is not one of the given ones.
+	 */
+	@Transactional
+	public void deleteCard(Integer cardId, AuthorizationContext authContext, List<String> ifMatch) {
+		Card card = findAccessibleCard(cardId, authContext);
+		checkIfMatch(card, ifMatch);
+		cardRepository.delete(card);
+		afterCommit(() -> cardCache.invalidateAll(List.of(cardId)));
+		publish(List.of(CardChange.deleted(cardId, card.getUser().getId())));
+	}
+
+	/**
+	 * Creates the cards of a batch and associates them with the authenticated user, which is resolved once for the
+	 * whole batch. Invalid items are reported and skipped, the valid ones are inserted in JDBC batches.
+	 *
+	 * @param dtos        The DTOs containing the information to create each card.
+	 * @param authContext The authorization context of the user who is creating the cards.
+	 * @return The outcome of every item, with the id of each created card.
+	 * @throws InvalidBatch If the batch is empty or larger than {@code cards.batch.max-size}.
+	 */
+	@Transactional
+	public CardBatchResp createCards(List<CreateCardDTO> dtos, AuthorizationContext authContext) {
+		checkBatchSize(dtos);
+		CardBatchItemResp[] items = new CardBatchItemResp[dtos.size()];
+		User user = userRepository.getReferenceById(authContext.userId());
+		LocalDateTime creationDate = LocalDateTime.now();
+		List<Integer> indexes = new ArrayList<>(dtos.size());
+		List<Card> cardsToBeStored = new ArrayList<>(dtos.size());
+		for (int i = 0; i < dtos.size(); i++) {
+			CreateCardDTO dto = dtos.get(i);
+			String violations = violations(dto);
+			if (violations != null) {
+				items[i] = failedItem(i, null, HttpStatus.BAD_REQUEST, violations);
+				continue;
+			}
+			indexes.add(i);
+			cardsToBeStored.add(Card.builder()
+					.name(dto.getName())
+					.description(dto.getDescription())
+					.color(dto.getColor())
+					.status(Status.TODO)
+					.creationDate(creationDate)
+					.user(user)
+					.build());
+		}
+		List<Card> storedCards = cardRepository.saveAll(cardsToBeStored);
+		for (int i = 0; i < storedCards.size(); i++) {
+			items[indexes.get(i)] = succeededItem(indexes.get(i), storedCards.get(i).getId(), HttpStatus.CREATED);
+		}
+		publish(storedCards.stream().map(CardChange::created).toList());
+		return batchResp(items);
+	}
+
+	/**
+	 * Updates the cards of a batch. All the cards are loaded and checked for permission with a single statement and
+	 * written back in JDBC batches. Invalid, missing and not permitted items are reported and skipped.
+	 *
+	 * @param dtos        The DTOs containing the updated information of each card.
+	 * @param authContext The authorization context of the user who is updating the cards.
+	 * @return The outcome of every item.
+	 * @throws InvalidBatch If the batch is empty or larger than {@code cards.batch.max-size}.
+	 */
+	@Transactional
+	public CardBatchResp updateCards(List<UpdateCardDTO> dtos, AuthorizationContext authContext) {
+		checkBatchSize(dtos);
+		CardBatchItemResp[] items = new CardBatchItemResp[dtos.size()];
+		Set<Integer> cardIds = new HashSet<>();
+		for (int i = 0; i < dtos.size(); i++) {
+			String violations = violations(dtos.get(i));
+			if (violations != null) {
+				items[i] = failedItem(i, dtos.get(i).getCardId(), HttpStatus.BAD_REQUEST, violations);
+			} else {
+				cardIds.add(dtos.get(i).getCardId());
+			}
+		}
+		Map<Integer, Card> cards = cardIds.isEmpty() ? Map.of() : cardRepository
+				.findAccessibleCards(cardIds, authContext.userId(), authContext.isAdmin()).stream()
+				.collect(Collectors.toMap(Card::getId, Function.identity()));
+		Set<Integer> existingCardIds = existingCardIds(cardIds, cards.keySet());
+		for (int i = 0; i < dtos.size(); i++) {
+			if (items[i] != null) {
+				continue;
+			}
+			UpdateCardDTO dto = dtos.get(i);
+			Card card = cards.get(dto.getCardId());
+			if (card == null) {
+				items[i] = refusedItem(i, dto.getCardId(), existingCardIds);
+				continue;
+			}
+			// Managed cards are flushed by dirty checking, in JDBC batches
+			card.setName(dto.getName());
+			card.setDescription(dto.getDescription());
+			card.setColor(dto.getColor());
+			card.setStatus(dto.getStatus());
+			items[i] = succeededItem(i, dto.getCardId(), HttpStatus.OK);
+		}
+		// Flushed now so that the cached cards carry their new versions
+		cardRepository.flush();
+		List<CachedCard> cachedCards = cards.values().stream().map(CachedCard::of).toList();
+		afterCommit(() -> cardCache.putAll(cachedCards));
+		publish(cards.values().stream().map(CardChange::updated).toList());
+		return batchResp(items);
+	}
+
+	/**
+	 * Deletes the cards of a batch. Permissions are checked with a single statement and the accessible cards are
+	 * deleted with another one. Missing and not permitted cards are reported and skipped.
+	 *
+	 * @param cardIds     The unique identifiers of the cards to delete.
+	 * @param authContext The authorization context of the user who wants to delete the cards.
+	 * @return The outcome of every item.
+	 * @throws InvalidBatch If the batch is empty or larger than {@code cards.batch.max-size}.
+	 */
+	@Transactional
+	public CardBatchResp deleteCards(List<Integer> cardIds, AuthorizationContext authContext) {
+		checkBatchSize(cardIds);
+		CardBatchItemResp[] items = new CardBatchItemResp[cardIds.size()];
+		Set<Integer> requestedCardIds = new LinkedHashSet<>();
+		for (int i = 0; i < cardIds.size(); i++) {
+			if (cardIds.get(i) == null) {
+				items[i] = failedItem(i, null, HttpStatus.BAD_REQUEST, "Card id is required");
+			} else {
+				requestedCardIds.add(cardIds.get(i));
+			}
+		}
+		List<CardOwner> accessibleCards = requestedCardIds.isEmpty() ? List.of()
+				: cardRepository.findAccessibleCardOwners(requestedCardIds, authContext.userId(), authContext.isAdmin());
+		Set<Integer> accessibleCardIds = accessibleCards.stream().map(CardOwner::cardId).collect(Collectors.toSet());
+		Set<Integer> existingCardIds = existingCardIds(requestedCardIds, accessibleCardIds);
+		for (int i = 0; i < cardIds.size(); i++) {
+			if (items[i] == null) {
+				items[i] = accessibleCardIds.contains(cardIds.get(i))
+						? succeededItem(i, cardIds.get(i), HttpStatus.OK)
+						: refusedItem(i, cardIds.get(i), existingCardIds);
+			}
+		}
+		if (!accessibleCardIds.isEmpty()) {
+			cardRepository.deleteAllByIdInBatch(accessibleCardIds);
+			afterCommit(() -> cardCache.invalidateAll(accessibleCardIds));
+			publish(accessibleCards.stream().map(card -> CardChange.deleted(card.cardId(), card.ownerId())).toList());
+		}
+		return batchResp(items);
+	}
+
+	/**
+	 * Searches for cards based on the criteria specified in the SearchCardCriteriaDTO. Users which are not
+	 * {@link com.logicea.cards.models.Role#ADMIN} only search among their own cards. The search runs in a read only
+	 * transaction on a read only connection, which is given back before the page is serialized.
+	 * The page tells whether a next one exists without counting the matching cards. Their total is only returned when
+	 * the criteria ask for it: the last page tells it, otherwise it is counted at most once per
+	 * {@code cards.search.count-cache.ttl} for the same user and filters, see {@link CardCountCache}.
+	 *
+	 * @param dto         The DTO containing the search criteria for cards.
+	 * @param authContext The authorization context of the user performing the search.
+	 * @return A page of cards that match the specified search criteria, with the total number of matching cards if requested.
+	 * @throws InvalidCriteria If the search criteria contain invalid fields or directions.
+	 */
+	@Transactional(readOnly = true)
+	public CardSearchResp searchCards(SearchCardCriteriaDTO dto, AuthorizationContext authContext) {
+		Pageable pageable = PageRequest.of(dto.getPage(), dto.getSize(), validatedSort(dto));
+		CardSearchFilter filter = searchFilter(dto, authContext);
+		Slice<CardView> page = cardRepository.searchCards(filter, pageable);
+		return CardSearchResp.of(page, dto.isWithTotal() ? total(filter, page) : null);
+	}
+
+	/**
+	 * Searches for cards like {@link #searchCards(SearchCardCriteriaDTO, AuthorizationContext)} but paginates by
+	 * keyset instead of offset: the page starts right after the position encoded in the cursor of the criteria and
+	 * no total count is computed, so every page costs the same as the first one.
+	 *
+	 * @param dto         The DTO containing the search criteria and the cursor of the previous page, if any.
+	 * @param authContext The authorization context of the user performing the search.
+	 * @return A slice of cards with the cursor of the next slice, if there is one.
+	 * @throws InvalidCriteria If the search criteria contain invalid fields or directions, the size is below 1 or the
+	 *                         cursor is invalid.
+	 */
+	@Transactional(readOnly = true)
+	public CardSearchResp searchCardsByCursor(SearchCardCriteriaDTO dto, AuthorizationContext authContext) {
+		if (dto.getSize() == null || dto.getSize() < 1) {
+			throw new InvalidCriteria(String.format("Given size is not correct %s. Accepted values: 1 or more", dto.getSize()));
+		}
+		List<Sort.Order> orders = CursorUtils.keysetOrders(validatedSort(dto));
+		List<Object> after = dto.getCursor() == null ? null : CursorUtils.decode(dto.getCursor(), orders, Card.class);
+		List<CardView> cards = cardRepository.searchCardsAfter(searchFilter(dto, authContext), orders, after, dto.getSize() + 1);
+		boolean hasNext = cards.size() > dto.getSize();
+		List<CardView> content = hasNext ? cards.subList(0, dto.getSize()) : cards;
+		return CardSearchResp.builder()
+				.items(content)
+				.size(dto.getSize())
+				.hasNext(hasNext)
+				.nextCursor(hasNext ? CursorUtils.encode(orders, content.get(content.size() - 1)::propertyValue) : null)
+				.build();
+	}
+
+	/**
+	 * Exports every card the user can access, with the same rules as
+	 * {@link #searchCards(SearchCardCriteriaDTO, AuthorizationContext)}: an {@link com.logicea.cards.models.Role#ADMIN}
+	 * exports all cards, other users their own. Cards are read from a forward only cursor {@code cards.export.fetch-size}
+	 * rows at a time and written as they come, so memory stays constant whatever the number of cards.
+	 *
+	 * @param authContext The authorization context of the user exporting the cards.
+	 * @param writer      The writer of the export format.
+	 * @return The number of exported cards.
+	 * @throws IOException If the client went away.
+	 */
+	@Transactional(readOnly = true)
+	public long exportCards(AuthorizationContext authContext, CardExportWriter writer) throws IOException {
+		CardSearchFilter filter = new CardSearchFilter(authContext.isAdmin() ? null : authContext.userId(), null, null, null, null);
+		long exported = 0;
+		try (Stream<CardView> cards = cardRepository.streamCards(filter, exportFetchSize)) {
+			for (Iterator<CardView> iterator = cards.iterator(); iterator.hasNext(); exported++) {
+				writer.write(iterator.next());
+			}
+		}
+		writer.finish();
+		return exported;
+	}
+
+	/**
+	 * Rejects batches which are empty or larger than {@code cards.batch.max-size}.
+	 *
+	 * @param batch The items of the batch.
+	 * @throws InvalidBatch If the batch is empty or too large.
+	 */
+	private void checkBatchSize(List<?> batch) {
+		if (batch == null || batch.isEmpty()) {
+			throw new InvalidBatch("The batch is empty");
+		}
+		if (batch.size() > maxBatchSize) {
+			throw new InvalidBatch(String.format("The batch has %s items, at most %s are accepted", batch.size(), maxBatchSize));
+		}
+	}
+
+	/**
+	 * Validates an item of a batch, which is not validated by the controller so that one invalid item does not
+	 * fail the whole batch.
+	 *
+	 * @param item The item to validate.
+	 * @return The messages of the constraint violations, or null if the item is valid.
 	 */
-	public void deleteCard(Integer cardId, String email) {
-		areUserAllowedToAccessCard(cardId, email);
-		cardRepository.deleteById(cardId);
+	private String violations(Object item) {
+		if (item == null) {
+			return "The item is empty";
+		}
+		Set<ConstraintViolation<Object>> violations = validator.validate(item);
+		if (violations.isEmpty()) {
+			return null;
+		}
+		StringJoiner stringJoiner = new StringJoiner(",");
+		violations.forEach(violation -> stringJoiner.add(violation.getMessage()));
+		return stringJoiner.toString();
 	}
 
 	/**
-	 * Searches for cards based on the criteria specified in the SearchCardCriteriaDTO, ensuring that the user
-	 * identified by the given email has appropriate permissions to access the search results.
+	 * Finds which of the requested cards exist, only when some of them were not found among the accessible ones.
 	 *
-	 * @param dto              The DTO containing the search criteria for cards.
-	 * @param currentUserEmail The email of the user performing the search.
-	 * @return A page of cards that match the specified search criteria.
-	 * @throws InvalidCriteria           If the search criteria contain invalid fields or directions.
-	 * @throws UsernameNotFoundException If the user with the given email is not found in the repository.
+	 * @param requestedCardIds  The identifiers of the requested cards.
+	 * @param accessibleCardIds The identifiers of the requested cards which are accessible.
+	 * @return The identifiers of the requested cards which exist, including the accessible ones.
 	 */
-	public Page<Card> searchCards(SearchCardCriteriaDTO dto, String currentUserEmail) {
-		Sort sortable = EntityUtils.validateAndGroupAllSorts(dto.getSortMap(), Card.class);
-		Pageable pageable = PageRequest.of(dto.getPage(), dto.getSize(), sortable);
-		Integer currentUserId = null;
-		if (!Role.ADMIN.equals(getCurrentRoleByUserEmail(currentUserEmail))) {
-			currentUserId =
-					userRepository.findUserIdByEmail(currentUserEmail).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+	private Set<Integer> existingCardIds(Set<Integer> requestedCardIds, Set<Integer> accessibleCardIds) {
+		if (accessibleCardIds.size() == requestedCardIds.size()) {
+			return accessibleCardIds;
 		}
-		return cardRepository.searchCards(
-				currentUserId,
+		return new HashSet<>(cardRepository.findExistingCardIds(requestedCardIds));
+	}
+
+	private static CardBatchItemResp refusedItem(int index, Integer cardId, Set<Integer> existingCardIds) {
+		return existingCardIds.contains(cardId)
+				? failedItem(index, cardId, HttpStatus.FORBIDDEN, String.format("You are not allowed to access card with id:%s", cardId))
+				: failedItem(index, cardId, HttpStatus.NOT_FOUND, "Card with given id not found");
+	}
+
+	private static CardBatchItemResp succeededItem(int index, Integer cardId, HttpStatus status) {
+		return CardBatchItemResp.builder().index(index).cardId(cardId).status(status.value()).build();
+	}
+
+	private static CardBatchItemResp failedItem(int index, Integer cardId, HttpStatus status, String error) {
+		return CardBatchItemResp.builder().index(index).cardId(cardId).status(status.value()).error(error).build();
+	}
+
+	private static CardBatchResp batchResp(CardBatchItemResp[] items) {
+		int failed = (int) Arrays.stream(items).filter(item -> item.getError() != null).count();
+		return CardBatchResp.builder()
+				.succeeded(items.length - failed)
+				.failed(failed)
+				.items(Arrays.asList(items))
+				.build();
+	}
+
+	/**
+	 * Validates the requested sort against the columns of {@link Card}.
+	 *
+	 * @param dto The DTO containing the search criteria for cards.
+	 * @return The sort of the search, by property path.
+	 * @throws InvalidCriteria If the sort contains invalid fields or directions.
+	 */
+	private Sort validatedSort(SearchCardCriteriaDTO dto) {
+		return EntityUtils.validateAndGroupAllSorts(dto.getSortMap(), Card.class);
+	}
+
+	/**
+	 * Counts the matches of an offset search, without a count query when the page shows where the results end.
+	 *
+	 * @param filter The filters of the search.
+	 * @param page   The page of results.
+	 * @return The total number of matching cards.
+	 */
+	private long total(CardSearchFilter filter, Slice<CardView> page) {
+		if (!page.hasNext() && (page.hasContent() || page.getNumber() == 0)) {
+			return page.getPageable().getOffset() + page.getNumberOfElements();
+		}
+		return cardCountCache.count(filter, cardRepository::countCards);
+	}
+
+	/**
+	 * Builds the filters of a search. Users which are not {@link com.logicea.cards.models.Role#ADMIN} only search
+	 * among their own cards.
+	 *
+	 * @param dto         The DTO containing the search criteria for cards.
+	 * @param authContext The authorization context of the user performing the search.
+	 * @return The filters of the search.
+	 */
+	private CardSearchFilter searchFilter(SearchCardCriteriaDTO dto, AuthorizationContext authContext) {
+		return new CardSearchFilter(
+				authContext.isAdmin() ? null : authContext.userId(),
 				dto.getName(),
 				dto.getColor(),
-				Status.getValueByStatus(dto.getStatus()),
-				dto.getCreationDate(),
-				pageable);
+				dto.getStatus(),
+				dto.getCreationDate());
 	}
 
 	/**
-	 * Checks if the user with the given email is allowed to access the card with the specified cardId.
-	 * If the user is an {@link Role#ADMIN}, they are granted access. Otherwise, it is checked whether the card
-	 * belongs to the
-	 * user.
+	 * Loads the card with the specified cardId if the user is allowed to access it. An
+	 * {@link com.logicea.cards.models.Role#ADMIN} can access every card, other users only the cards they own.
+	 * Both the lookup and the permission check are answered by a single statement; the existence of the card is
+	 * only checked to report the proper error when access is refused.
 	 *
-	 * @param cardId The unique identifier of the card to be accessed.
-	 * @param email  The email of the user attempting to access the card.
+	 * @param cardId      The unique identifier of the card to be accessed.
+	 * @param authContext The authorization context of the user attempting to access the card.
+	 * @return The card with the provided cardId.
+	 * @throws CardNotFoundException If the card with the given cardId does not exist.
 	 * @throws ResourcesNotPermitted If the user is not allowed to access the card with the specified cardId.
 	 */
-	private void areUserAllowedToAccessCard(Integer cardId, String email) {
-		isCardExists(cardId);
-		var currentUserRole = getCurrentRoleByUserEmail(email);
-		if (Role.ADMIN.equals(currentUserRole)) return;
-		if (cardRepository.isCardIdBelongToThisEmail(cardId, email)) return;
-		throw new ResourcesNotPermitted(
+	private Card findAccessibleCard(Integer cardId, AuthorizationContext authContext) {
+		return cardRepository.findAccessibleCard(cardId, authContext.userId(), authContext.isAdmin())
+				.orElseThrow(() -> accessRefused(cardId));
+	}
+
+	private static void checkIfMatch(Card card, List<String> ifMatch) {
+		CardVersion version = CardVersion.of(card);
+		if (!version.matches(ifMatch)) {
+			throw new PreconditionFailed("Card " + card.getId() + " has changed, its current ETag is " + version.eTag(), version.eTag());
+		}
+	}
+
+	/**
+	 * Builds the exception explaining why the card with the specified cardId could not be accessed.
+	 *
+	 * @param cardId The unique identifier of the card which could not be accessed.
+	 * @return {@link CardNotFoundException} if the card does not exist, {@link ResourcesNotPermitted} otherwise.
+	 */
+	private RuntimeException accessRefused(Integer cardId) {
+		if (!cardRepository.cardExists(cardId)) {
+			return new CardNotFoundException("Card with given id not found");
+		}
+		return notPermitted(cardId);
+	}
+
+	private static ResourcesNotPermitted notPermitted(Integer cardId) {
+		return new ResourcesNotPermitted(
 				String.format(
 						"You are not allowed to access card with id:%s", cardId
 				)
@@ -152,27 +563,33 @@ public class CardService {
 	}
 
 	/**
-	 * Checks if a card with the specified cardId exists in the card repository.
+	 * Records the changes in the outbox within the current transaction and publishes them to the change feed once it
+	 * commits.
 	 *
-	 * @param cardId The unique identifier of the card to check.
-	 * @throws CardNotFoundException If the card with the given cardId does not exist.
+	 * @param changes The changes made by the current transaction.
 	 */
-	private void isCardExists(Integer cardId) {
-		if (!cardRepository.existsById(cardId))
-			throw new CardNotFoundException("Card with given id not found");
+	private void publish(List<CardChange> changes) {
+		cardOutbox.record(changes);
+		afterCommit(() -> changes.forEach(cardChangeFeed::publish));
 	}
 
 	/**
-	 * Retrieves the role of the user identified by the given email from the user repository.
+	 * Runs the given action once the current transaction commits, so a rolled back write never reaches the cache or
+	 * the change feed and a concurrent read cannot cache the value from before the commit after the update.
 	 *
-	 * @param email The email of the user to retrieve the role for.
-	 * @return The Role of the user.
-	 * @throws UsernameNotFoundException If the user with the given email is not found in the repository or if the
-	 *                                   role is not found for the user.
+	 * @param action The update of the {@link CardCache} or the publication to the {@link CardChangeFeed}.
 	 */
-	private Role getCurrentRoleByUserEmail(String email) {
-		return userRepository.findRoleByEmail(email)
-				.orElseThrow(() -> new UsernameNotFoundException("Role not found for the given user"));
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
 	}
 
-}
\ No newline at end of file
+}
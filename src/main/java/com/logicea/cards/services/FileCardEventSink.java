@@ -0,0 +1,102 @@
+package com.logicea.cards.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logicea.cards.models.CardOutboxEvent;
+
+/**
+ * {@link CardEventSink} appending the changes as JSON lines to the local file {@code cards.outbox.file}, flushed
+ * after every batch. Once the file reaches {@code cards.outbox.file-max-size}, it is rolled to {@code <file>.1} before
+ * the next batch, the previous ones shifting to {@code <file>.2} and so on up to {@code cards.outbox.file-max-history},
+ * beyond which the oldest is deleted.
+ */
+@Service
+@ConditionalOnProperty(prefix = "cards.outbox", name = "sink", havingValue = "file")
+public class FileCardEventSink implements CardEventSink, DisposableBean {
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final long maxSize;
+    private final int maxHistory;
+    private BufferedWriter writer;
+
+    public FileCardEventSink(ObjectMapper objectMapper,
+                             @Value("${cards.outbox.file:card-events.ndjson}") Path file,
+                             @Value("${cards.outbox.file-max-size:100MB}") DataSize maxSize,
+                             @Value("${cards.outbox.file-max-history:10}") int maxHistory) {
+        if (maxHistory < 1) {
+            throw new IllegalArgumentException("cards.outbox.file-max-history must be at least 1, was " + maxHistory);
+        }
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.maxSize = maxSize.toBytes();
+        this.maxHistory = maxHistory;
+    }
+
+    @Override
+    public synchronized void publish(List<CardOutboxEvent> events) throws IOException {
+        try {
+            if (writer == null) {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                if (Files.exists(file) && Files.size(file) >= maxSize) {
+                    roll();
+                }
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (CardOutboxEvent event : events) {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.newLine();
+            }
+            writer.flush();
+            if (Files.size(file) >= maxSize) {
+                // Rolled when reopened by the next batch
+                destroy();
+            }
+        } catch (IOException e) {
+            // Reopened by the next batch
+            destroy();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        if (writer != null) {
+            BufferedWriter closed = writer;
+            writer = null;
+            closed.close();
+        }
+    }
+
+    /**
+     * Shifts the rolled files by one, dropping the oldest, and rolls the current file to {@code <file>.1}.
+     */
+    private void roll() throws IOException {
+        Files.deleteIfExists(rolled(maxHistory));
+        for (int index = maxHistory - 1; index >= 1; index--) {
+            if (Files.exists(rolled(index))) {
+                Files.move(rolled(index), rolled(index + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
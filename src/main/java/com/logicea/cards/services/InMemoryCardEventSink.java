@@ -0,0 +1,45 @@
+package com.logicea.cards.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.logicea.cards.models.CardOutboxEvent;
+
+/**
+ * {@link CardEventSink} keeping the changes in memory, for tests and benchmarks. Nothing is ever removed unless
+ * {@link #clear()} is called.
+ */
+@Service
+@ConditionalOnProperty(prefix = "cards.outbox", name = "sink", havingValue = "memory")
+public class InMemoryCardEventSink implements CardEventSink {
+    private final List<CardOutboxEvent> events = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<CardOutboxEvent> events) {
+        this.events.addAll(events);
+    }
+
+    /**
+     * @return The changes published so far, oldest first.
+     */
+    public synchronized List<CardOutboxEvent> events() {
+        return List.copyOf(events);
+    }
+
+    /**
+     * @return The number of changes published so far.
+     */
+    public synchronized int size() {
+        return events.size();
+    }
+
+    /**
+     * Forgets the changes published so far.
+     */
+    public synchronized void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,150 @@
+package com.logicea.cards.services;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.Key;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ring of HMAC keys identified by {@code kid}, decoded once when the ring is loaded.
+ * Tokens are signed with the signing key and verified with whichever key of the ring their {@code kid} names, so a key
+ * can be rotated without a restart: add the new key to the ring, switch the signing kid to it, and drop the old key once
+ * the tokens it signed have expired.
+ * <p>
+ * The ring is read from {@code cards.jwt.keys} and, when {@code cards.jwt.key-file} is set, replaced by the content of
+ * that file every time it is modified. The file is a properties file with a {@code signing-kid} entry and one
+ * {@code keys.<kid>} entry per base64 encoded secret.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+    private static final String KEY_PREFIX = "keys.";
+
+    private final Path keyFile;
+    private volatile FileTime keyFileModified;
+    private volatile Snapshot snapshot;
+
+    public JwtKeyRing(@Value("${cards.jwt.keys}") String keys,
+                      @Value("${cards.jwt.signing-kid}") String signingKid,
+                      @Value("${cards.jwt.key-file:}") String keyFile) {
+        this.snapshot = Snapshot.of(signingKid, parseKeys(keys));
+        this.keyFile = keyFile.isBlank() ? null : Path.of(keyFile);
+        reloadKeyFile();
+    }
+
+    /**
+     * @return The kid and key new tokens are signed with.
+     */
+    public SigningKey signingKey() {
+        return snapshot.signingKey();
+    }
+
+    /**
+     * Looks up the key verifying tokens signed under the given kid.
+     *
+     * @param kid The kid of the token header, null for tokens issued before keys had ids.
+     * @return The key of the given kid, the signing key when the kid is null, or null when the kid is not in the ring.
+     */
+    public Key verificationKey(String kid) {
+        Snapshot current = snapshot;
+        return kid == null ? current.signingKey().key() : current.keys().get(kid);
+    }
+
+    /**
+     * Replaces the whole ring.
+     *
+     * @param signingKid The kid new tokens are signed with, it must be one of the given keys.
+     * @param secrets    The base64 encoded secrets of the ring by kid.
+     * @throws IllegalArgumentException If the signing kid is not in the ring or a secret is shorter than 256 bits.
+     */
+    public void rotate(String signingKid, Map<String, String> secrets) {
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        secrets.forEach((kid, secret) -> keys.put(kid, Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret))));
+        snapshot = Snapshot.of(signingKid, keys);
+        log.info("JWT key ring rotated, signing with {} and verifying {}", signingKid, keys.keySet());
+    }
+
+    /**
+     * Reloads the ring from the key file when it has been modified since it was last read.
+     * A file that cannot be read or holds an invalid ring is logged and the current ring is kept.
+     */
+    @Scheduled(fixedDelayString = "${cards.jwt.key-file-check-interval:PT30S}")
+    public void reloadKeyFile() {
+        if (keyFile == null) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(keyFile);
+            if (modified.equals(keyFileModified)) {
+                return;
+            }
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(keyFile)) {
+                properties.load(reader);
+            }
+            Map<String, String> secrets = new LinkedHashMap<>();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(KEY_PREFIX)) {
+                    secrets.put(name.substring(KEY_PREFIX.length()), properties.getProperty(name).trim());
+                }
+            }
+            rotate(properties.getProperty("signing-kid", "").trim(), secrets);
+            keyFileModified = modified;
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not load the JWT key file {}, keeping the current key ring", keyFile, e);
+        }
+    }
+
+    private static Map<String, SecretKey> parseKeys(String keys) {
+        Map<String, SecretKey> parsed = new LinkedHashMap<>();
+        for (String entry : keys.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("cards.jwt.keys entries must be <kid>=<base64 secret>");
+            }
+            parsed.put(entry.substring(0, separator).trim(),
+                    Keys.hmacShaKeyFor(Decoders.BASE64.decode(entry.substring(separator + 1).trim())));
+        }
+        return parsed;
+    }
+
+    /**
+     * Key new tokens are signed with.
+     *
+     * @param kid The id written to the {@code kid} header of the token.
+     * @param key The HMAC key.
+     */
+    public record SigningKey(String kid, SecretKey key) {
+    }
+
+    /**
+     * Immutable state of the ring, swapped as a whole on rotation.
+     *
+     * @param signingKey The key new tokens are signed with.
+     * @param keys       Every key of the ring by kid, including the signing key.
+     */
+    private record Snapshot(SigningKey signingKey, Map<String, SecretKey> keys) {
+        static Snapshot of(String signingKid, Map<String, SecretKey> keys) {
+            SecretKey key = keys.get(signingKid);
+            if (key == null) {
+                throw new IllegalArgumentException("Signing kid " + signingKid + " is not in the key ring " + keys.keySet());
+            }
+            return new Snapshot(new SigningKey(signingKid, key), Map.copyOf(keys));
+        }
+    }
+}
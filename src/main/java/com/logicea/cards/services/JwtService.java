@@ -1,62 +1,105 @@
 package com.logicea.cards.services;
 
+import com.logicea.cards.models.Role;
+import com.logicea.cards.models.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Serializer;
+import io.jsonwebtoken.jackson.io.JacksonSerializer;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
+/**
+ * Issues and verifies the HS256 tokens of the API with the keys of the {@link JwtKeyRing}.
+ * The parser is built once and resolves the key of each token from its {@code kid} header, so verification neither
+ * decodes keys nor builds parsers per call. Generation likewise reuses the JSON serializer instead of looking one up
+ * per token.
+ */
 @Service
 public class JwtService {
-    //todo: use @value to get the secret key from application.yml
-    private final String SECRET_KEY = "4f1feeca525de4cdb064656007da3edac7895a87ff0ea865693300fb8b6e8f9c";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
 
-    public String extractEmail(String token) {
-        return extractClaims(token, Claims::getSubject);
-    }
+    private final JwtKeyRing keyRing;
+    private final long expirationMillis;
+    private final JwtParser parser;
+    private final Serializer<Map<String, ?>> serializer = new JacksonSerializer<>();
 
-    public <T> T extractClaims(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public JwtService(JwtKeyRing keyRing, @Value("${cards.jwt.expiration:PT24M}") Duration expiration) {
+        this.keyRing = keyRing;
+        this.expirationMillis = expiration.toMillis();
+        this.parser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                Key key = keyRing.verificationKey(header.getKeyId());
+                if (key == null) {
+                    throw new SignatureException("Unknown signing key " + header.getKeyId());
+                }
+                return key;
+            }
+        }).build();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSignInKey()).build().parseClaimsJws(token).getBody();
+    /**
+     * Parses the token, verifying its signature and expiration in a single pass.
+     *
+     * @param token The compact JWT.
+     * @return The user id, subject, role, token version and expiration of the token.
+     * @throws io.jsonwebtoken.JwtException If the token is malformed, tampered with, signed with an unknown key or expired.
+     */
+    @Timed("cards.jwt")
+    public TokenClaims parseAndValidate(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        String role = claims.get(ROLE_CLAIM, String.class);
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        return new TokenClaims(claims.get(USER_ID_CLAIM, Integer.class), claims.getSubject(), role == null ? null : Role.valueOf(role),
+                tokenVersion == null ? 0 : tokenVersion, claims.getExpiration().toInstant());
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+    public String extractEmail(String token) {
+        return parseAndValidate(token).subject();
     }
 
-    public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return Jwts.builder().setClaims(extraClaims).setSubject(userDetails.getUsername()).setIssuedAt(new Date(System.currentTimeMillis()))
-                //todo: replace expiration from application.yml
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 24)).signWith(getSignInKey(), SignatureAlgorithm.HS256).compact();
+    /**
+     * Issues a token carrying everything authentication needs, so requests are authenticated without loading the user.
+     *
+     * @param user The user to issue the token to.
+     * @return The compact JWT signed with the signing key of the ring.
+     */
+    @Timed("cards.jwt")
+    public String generateToken(User user) {
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
+        long now = System.currentTimeMillis();
+        return Jwts.builder().serializeToJsonWith(serializer).setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setSubject(user.getEmail()).claim(USER_ID_CLAIM, user.getId()).claim(ROLE_CLAIM, user.getRole().name())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
+                .setIssuedAt(new Date(now)).setExpiration(new Date(now + expirationMillis))
+                .signWith(signingKey.key(), SignatureAlgorithm.HS256).compact();
     }
 
     public boolean isTokenValid(UserDetails userDetails, String token) {
-        final String username = extractEmail(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        TokenClaims claims = parseAndValidate(token);
+        return claims.subject().equals(userDetails.getUsername()) && !isExpired(claims);
     }
 
     public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isExpired(parseAndValidate(token));
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaims(token, Claims::getExpiration);
+    private static boolean isExpired(TokenClaims claims) {
+        return claims.expiresAt().toEpochMilli() < System.currentTimeMillis();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.logicea.cards.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * In process {@link CardCache}, bounded in size with W-TinyLFU eviction and expiring entries after a ttl, which also
+ * bounds how long another instance may serve a card this one did not see being written.
+ * Hits, misses, evictions and size are published as the {@code cache.*} meters with the tag {@code cache=cards}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "cards.card-cache", name = "type", havingValue = "local", matchIfMissing = true)
+public class LocalCardCache implements CardCache, MeterBinder {
+    private final Cache<Integer, CachedCard> cache;
+
+    public LocalCardCache(@Value("${cards.card-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${cards.card-cache.ttl:PT10M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public CachedCard get(Integer cardId, Function<Integer, CachedCard> loader) {
+        return cache.get(cardId, loader);
+    }
+
+    @Override
+    public CachedCard getIfPresent(Integer cardId) {
+        return cache.getIfPresent(cardId);
+    }
+
+    @Override
+    public void putAll(Collection<CachedCard> cards) {
+        cards.forEach(card -> cache.put(card.id(), card));
+    }
+
+    @Override
+    public void invalidateAll(Collection<Integer> cardIds) {
+        cache.invalidateAll(cardIds);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "cards");
+    }
+}
@@ -0,0 +1,35 @@
+package com.logicea.cards.services;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logicea.cards.models.CardOutboxEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Default {@link CardEventSink}, logging each change as a JSON line on the {@code cards.changes} logger, so that the
+ * changes are rolled and capped along with the other logs. With the {@code async-logging} profile, changes logged
+ * while its ring buffer is full may be dropped; use the file sink when every change must be kept.
+ */
+@Service
+@ConditionalOnProperty(prefix = "cards.outbox", name = "sink", havingValue = "log", matchIfMissing = true)
+@Slf4j(topic = "cards.changes")
+public class LoggingCardEventSink implements CardEventSink {
+    private final ObjectMapper objectMapper;
+
+    public LoggingCardEventSink(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(List<CardOutboxEvent> events) throws JsonProcessingException {
+        for (CardOutboxEvent event : events) {
+            log.info("{}", objectMapper.writeValueAsString(event));
+        }
+    }
+}
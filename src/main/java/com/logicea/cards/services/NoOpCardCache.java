@@ -0,0 +1,33 @@
+package com.logicea.cards.services;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link CardCache} which caches nothing, every read goes to the database.
+ */
+@Service
+@ConditionalOnProperty(prefix = "cards.card-cache", name = "type", havingValue = "none")
+public class NoOpCardCache implements CardCache {
+
+    @Override
+    public CachedCard get(Integer cardId, Function<Integer, CachedCard> loader) {
+        return loader.apply(cardId);
+    }
+
+    @Override
+    public CachedCard getIfPresent(Integer cardId) {
+        return null;
+    }
+
+    @Override
+    public void putAll(Collection<CachedCard> cards) {
+    }
+
+    @Override
+    public void invalidateAll(Collection<Integer> cardIds) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.logicea.cards.services;
+
+import java.time.Instant;
+
+import com.logicea.cards.models.Role;
+
+/**
+ * Claims of a verified JWT that authentication relies on.
+ *
+ * @param userId       The id of the user the token was issued to, null for tokens issued without a uid claim.
+ * @param subject      The email of the user the token was issued to.
+ * @param role         The role of the user when the token was issued, null for tokens issued without a role claim.
+ * @param tokenVersion The token version of the user when the token was issued, see {@link TokenVersionRegistry}.
+ * @param expiresAt    The expiration of the token.
+ */
+public record TokenClaims(Integer userId, String subject, Role role, int tokenVersion, Instant expiresAt) {
+}
@@ -0,0 +1,58 @@
+package com.logicea.cards.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.logicea.cards.repositories.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory view of the token versions of users, used to revoke tokens without loading the user on every request.
+ * A token is current while its {@code ver} claim is not below the token version of its user. Only users whose tokens
+ * have been revoked have a version above zero, so the map stays small. Revocations of this instance apply immediately,
+ * those of other instances once the background refresh picks them up.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionRegistry {
+    private final UserRepository userRepository;
+    private final Map<Integer, Integer> versions = new ConcurrentHashMap<>();
+
+    /**
+     * @param claims The claims of a verified token.
+     * @return true if the token has not been revoked, false otherwise.
+     */
+    public boolean isCurrent(TokenClaims claims) {
+        return claims.tokenVersion() >= versions.getOrDefault(claims.userId(), 0);
+    }
+
+    /**
+     * Revokes every token issued to the given user so far.
+     *
+     * @param userId The ID of the user.
+     */
+    @Transactional
+    public void revoke(Integer userId) {
+        userRepository.incrementTokenVersion(userId);
+        versions.merge(userId, userRepository.findTokenVersion(userId), Math::max);
+        log.info("Revoked the tokens of user {}", userId);
+    }
+
+    /**
+     * Reloads the token versions of revoked users, picking up revocations made by other instances.
+     * Versions only ever increase, so a refresh never undoes a newer local revocation.
+     */
+    @Scheduled(fixedDelayString = "${cards.jwt.revocation.refresh-interval:PT30S}")
+    public void refresh() {
+        for (UserRepository.UserTokenVersion version : userRepository.findRevokedTokenVersions()) {
+            versions.merge(version.getId(), version.getTokenVersion(), Math::max);
+        }
+    }
+}
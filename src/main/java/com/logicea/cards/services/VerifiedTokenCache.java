@@ -0,0 +1,128 @@
+package com.logicea.cards.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.logicea.cards.models.AuthorizationContext;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of already verified JWTs.
+ * Tokens carry the id and role of their user, so verifying one never touches the database; a hit additionally saves
+ * the signature verification for one digest and one hash lookup.
+ * Entries are keyed by the SHA-256 digest of the token and never outlive the expiration of the token itself. Revocation
+ * is checked against the {@link TokenVersionRegistry} on every call, cached or not.
+ * Hits, misses, evictions and size are published as the {@code cache.*} meters with the tag {@code cache=verified-tokens}.
+ */
+@Service
+public class VerifiedTokenCache implements MeterBinder {
+    private final JwtService jwtService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(JwtService jwtService,
+                              TokenVersionRegistry tokenVersionRegistry,
+                              @Value("${cards.jwt.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${cards.jwt.cache.ttl:PT5M}") Duration ttl) {
+        this.jwtService = jwtService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(ttl))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Resolves the caller of the given token, verifying the token only when it is not already cached.
+     *
+     * @param token The compact JWT taken from the Authorization header.
+     * @return The identity and role of the caller, as claimed by the token.
+     * @throws io.jsonwebtoken.JwtException If the token is malformed, tampered with, expired, issued without user id
+     *                                      and role claims or revoked.
+     */
+    public AuthorizationContext resolve(String token) {
+        String key = digest(token);
+        VerifiedToken verifiedToken = cache.getIfPresent(key);
+        if (verifiedToken == null) {
+            TokenClaims claims = jwtService.parseAndValidate(token);
+            if (claims.userId() == null || claims.role() == null) {
+                throw new MalformedJwtException("Token has no uid or role claim");
+            }
+            verifiedToken = new VerifiedToken(claims, new AuthorizationContext(claims.userId(), claims.subject(), claims.role()));
+            cache.put(key, verifiedToken);
+        }
+        if (!tokenVersionRegistry.isCurrent(verifiedToken.claims())) {
+            throw new JwtException("Token has been revoked");
+        }
+        return verifiedToken.authContext();
+    }
+
+    /**
+     * Drops the cached tokens of a user, e.g. once they have been revoked.
+     *
+     * @param userId The id of the user.
+     */
+    public void invalidate(Integer userId) {
+        cache.asMap().values().removeIf(verifiedToken -> verifiedToken.claims().userId().equals(userId));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "verified-tokens");
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Verified token entry.
+     *
+     * @param claims      The verified claims of the token.
+     * @param authContext The caller the token was issued to.
+     */
+    private record VerifiedToken(TokenClaims claims, AuthorizationContext authContext) {
+    }
+
+    /**
+     * Expires each entry after the configured ttl or at the expiration of its token, whichever comes first.
+     */
+    private record TokenExpiry(Duration ttl) implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long untilExpiration = Duration.between(Instant.now(), value.claims().expiresAt()).toNanos();
+            return Math.max(0, Math.min(ttl.toNanos(), untilExpiration));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
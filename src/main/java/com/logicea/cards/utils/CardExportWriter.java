@@ -0,0 +1,121 @@
+package com.logicea.cards.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.logicea.cards.models.CardView;
+import com.logicea.cards.requests.ExportFormat;
+
+/**
+ * Writes the cards of an export one at a time to an output stream, so nothing but the current card is held in memory.
+ * Output is buffered and only flushed by {@link #finish()}, or by the container when its buffer is full.
+ */
+public interface CardExportWriter {
+
+	/**
+	 * Writes one card.
+	 *
+	 * @param card The card to write.
+	 * @throws IOException If the client went away.
+	 */
+	void write(CardView card) throws IOException;
+
+	/**
+	 * Flushes what is left of the output, without closing the stream which belongs to the container.
+	 *
+	 * @throws IOException If the client went away.
+	 */
+	void finish() throws IOException;
+
+	/**
+	 * @param format       The format of the export.
+	 * @param objectMapper The object mapper of the API, so exported cards look like the ones of the other endpoints.
+	 * @param outputStream The stream to write to.
+	 * @return A writer of the given format.
+	 * @throws IOException If the output cannot be opened.
+	 */
+	static CardExportWriter of(ExportFormat format, ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+		return switch (format) {
+			case NDJSON -> new NdjsonWriter(objectMapper, outputStream);
+			case CSV -> new CsvWriter(outputStream);
+		};
+	}
+
+	/**
+	 * One JSON object per line, written by a single generator.
+	 */
+	final class NdjsonWriter implements CardExportWriter {
+		private final JsonGenerator generator;
+		private final ObjectWriter cardWriter;
+
+		private NdjsonWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+			this.generator = objectMapper.getFactory().createGenerator(outputStream)
+					.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+					.setRootValueSeparator(null);
+			this.cardWriter = objectMapper.writerFor(CardView.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		}
+
+		@Override
+		public void write(CardView card) throws IOException {
+			cardWriter.writeValue(generator, card);
+			generator.writeRaw('\n');
+		}
+
+		@Override
+		public void finish() throws IOException {
+			generator.flush();
+		}
+	}
+
+	/**
+	 * RFC 4180 values with a header line.
+	 */
+	final class CsvWriter implements CardExportWriter {
+		private final Writer writer;
+
+		private CsvWriter(OutputStream outputStream) throws IOException {
+			this.writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+			writer.write("id,name,description,color,status,creationDate\r\n");
+		}
+
+		@Override
+		public void write(CardView card) throws IOException {
+			writer.write(String.valueOf(card.id()));
+			writeField(card.name());
+			writeField(card.description());
+			writeField(card.color());
+			writeField(card.status() == null ? null : card.status().name());
+			writeField(card.creationDate() == null ? null : card.creationDate().toString());
+			writer.write("\r\n");
+		}
+
+		@Override
+		public void finish() throws IOException {
+			writer.flush();
+		}
+
+		/**
+		 * Writes a separator and the value, quoted when it contains a separator, a quote or a line break.
+		 */
+		private void writeField(String value) throws IOException {
+			writer.write(',');
+			if (value == null) {
+				return;
+			}
+			if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+				writer.write(value);
+				return;
+			}
+			writer.write('"');
+			writer.write(value.replace("\"", "\"\""));
+			writer.write('"');
+		}
+	}
+}
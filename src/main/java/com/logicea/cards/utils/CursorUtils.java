@@ -0,0 +1,133 @@
+package com.logicea.cards.utils;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ReflectionUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.logicea.cards.exceptions.InvalidCriteria;
+
+/**
+ * Utility class for keyset (seek) pagination.
+ * A cursor is an opaque, url safe token holding the sort of the search and the sort key values of the last entity
+ * of a page, so the next page can be fetched with an indexed predicate instead of an offset.
+ */
+public final class CursorUtils {
+	private static final String ID_PROPERTY = "id";
+	private static final JsonMapper MAPPER = JsonMapper.builder()
+			.addModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.build();
+
+	private CursorUtils() {
+	}
+
+	/**
+	 * Builds the keyset orders of a sort: the id is appended as tiebreaker, so every entity has a unique position.
+	 *
+	 * @param sort The validated sort, by property path.
+	 * @return The keyset orders, by property path.
+	 */
+	public static List<Sort.Order> keysetOrders(Sort sort) {
+		List<Sort.Order> orders = new ArrayList<>(sort.toList());
+		if (orders.stream().noneMatch(order -> ID_PROPERTY.equals(order.getProperty()))) {
+			orders.add(Sort.Order.asc(ID_PROPERTY));
+		}
+		return orders;
+	}
+
+	/**
+	 * Encodes the position of the given entity as a cursor.
+	 *
+	 * @param orders The keyset orders of the search.
+	 * @param entity The last entity of the page.
+	 * @return The cursor pointing after the given entity.
+	 */
+	public static String encode(List<Sort.Order> orders, Object entity) {
+		BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+		return encode(orders, wrapper::getPropertyValue);
+	}
+
+	/**
+	 * Encodes the position of a row as a cursor, for rows which are not beans, e.g. projections.
+	 *
+	 * @param orders         The keyset orders of the search.
+	 * @param propertyValues Resolves the value of a property path of the last row of the page.
+	 * @return The cursor pointing after the given row.
+	 */
+	public static String encode(List<Sort.Order> orders, Function<String, Object> propertyValues) {
+		ObjectNode cursor = MAPPER.createObjectNode();
+		cursor.put("s", signature(orders));
+		ArrayNode values = cursor.putArray("v");
+		for (Sort.Order order : orders) {
+			values.add(MAPPER.valueToTree(propertyValues.apply(order.getProperty())));
+		}
+		try {
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(cursor));
+		} catch (Exception e) {
+			throw new IllegalStateException("Unable to encode cursor", e);
+		}
+	}
+
+	/**
+	 * Decodes the sort key values of a cursor.
+	 *
+	 * @param cursor The cursor returned with the previous page.
+	 * @param orders The keyset orders of the search, which must be the ones the cursor was created with.
+	 * @param clazz  The Class object representing the entity.
+	 * @return The sort key values, in the order of {@code orders}.
+	 * @throws InvalidCriteria If the cursor is malformed or was created for another sort.
+	 */
+	public static List<Object> decode(String cursor, List<Sort.Order> orders, Class<?> clazz) {
+		JsonNode node;
+		try {
+			node = MAPPER.readTree(Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII)));
+		} catch (Exception e) {
+			throw new InvalidCriteria("Given cursor is not valid");
+		}
+		JsonNode values = node.path("v");
+		if (!signature(orders).equals(node.path("s").asText()) || values.size() != orders.size()) {
+			throw new InvalidCriteria("Given cursor does not match the requested sort");
+		}
+		List<Object> decoded = new ArrayList<>(orders.size());
+		for (int i = 0; i < orders.size(); i++) {
+			JsonNode value = values.get(i);
+			try {
+				decoded.add(value.isNull() ? null : MAPPER.treeToValue(value, propertyType(clazz, orders.get(i).getProperty())));
+			} catch (Exception e) {
+				throw new InvalidCriteria("Given cursor is not valid");
+			}
+		}
+		return decoded;
+	}
+
+	private static String signature(List<Sort.Order> orders) {
+		return orders.stream().map(order -> order.getProperty() + ":" + order.getDirection()).collect(Collectors.joining(","));
+	}
+
+	private static Class<?> propertyType(Class<?> clazz, String propertyPath) {
+		Class<?> type = clazz;
+		for (String property : propertyPath.split("\\.")) {
+			Field field = ReflectionUtils.findField(type, property);
+			if (field == null) {
+				throw new InvalidCriteria(String.format("Unknown property %s", propertyPath));
+			}
+			type = field.getType();
+		}
+		return type;
+	}
+}
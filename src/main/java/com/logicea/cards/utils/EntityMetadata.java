@@ -0,0 +1,84 @@
+package com.logicea.cards.utils;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.springframework.data.domain.Sort;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.JoinColumn;
+
+/**
+ * Sort metadata of an entity class, computed once per class and shared afterwards.
+ * It holds a ready made {@link Sort.Order} by JPA property path for each column and join column name and direction,
+ * a join column being resolved to the id of the associated entity (e.g. {@code user_id} to {@code user.id}), so
+ * validating the sort of a request is a couple of hash lookups.
+ */
+public final class EntityMetadata {
+	private static final ClassValue<EntityMetadata> REGISTRY = new ClassValue<>() {
+		@Override
+		protected EntityMetadata computeValue(Class<?> type) {
+			return new EntityMetadata(type);
+		}
+	};
+
+	private final Map<String, Sort.Order> ascendingOrders;
+	private final Map<String, Sort.Order> descendingOrders;
+	private final String sortableColumnNames;
+
+	private EntityMetadata(Class<?> clazz) {
+		Map<String, String> paths = new HashMap<>();
+		for (Field field : clazz.getDeclaredFields()) {
+			JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+			if (joinColumn != null) {
+				paths.put(joinColumn.name(), field.getName() + ".id");
+			}
+			Column column = field.getAnnotation(Column.class);
+			if (column != null) {
+				paths.put(column.name(), field.getName());
+			}
+		}
+		Map<String, Sort.Order> ascending = new HashMap<>();
+		Map<String, Sort.Order> descending = new HashMap<>();
+		paths.forEach((columnName, propertyPath) -> {
+			ascending.put(columnName, Sort.Order.asc(propertyPath));
+			descending.put(columnName, Sort.Order.desc(propertyPath));
+		});
+		this.ascendingOrders = Map.copyOf(ascending);
+		this.descendingOrders = Map.copyOf(descending);
+		this.sortableColumnNames = new TreeSet<>(paths.keySet()).toString();
+	}
+
+	/**
+	 * Retrieves the metadata of an entity class, computing it on first use.
+	 *
+	 * @param clazz The Class object representing the entity.
+	 * @return The metadata of the entity.
+	 */
+	public static EntityMetadata of(Class<?> clazz) {
+		return REGISTRY.get(clazz);
+	}
+
+	/**
+	 * Retrieves the prebuilt sort order of a column.
+	 *
+	 * @param columnName The column or join column name.
+	 * @param direction  The direction of the order.
+	 * @return The order by the property path of the column, or null if the column is not sortable.
+	 */
+	public Sort.Order order(String columnName, Sort.Direction direction) {
+		if (columnName == null) {
+			return null;
+		}
+		return direction.isAscending() ? ascendingOrders.get(columnName) : descendingOrders.get(columnName);
+	}
+
+	/**
+	 * @return The sorted column names, formatted once for error messages.
+	 */
+	public String sortableColumnNames() {
+		return sortableColumnNames;
+	}
+}
@@ -0,0 +1,62 @@
+package com.logicea.cards;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logicea.cards.models.Role;
+import com.logicea.cards.models.User;
+import com.logicea.cards.repositories.UserRepository;
+
+/**
+ * Users of the tests running against the in memory database: each one is saved with a unique email and the same
+ * password, and authenticated through {@code /api/open/auth/authenticate} like any client.
+ */
+public class TestUsers {
+    private static final String PASSWORD = "password";
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    private final MockMvc mvc;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    public TestUsers(MockMvc mvc, ObjectMapper objectMapper, UserRepository userRepository, PasswordEncoder passwordEncoder) {
+        this.mvc = mvc;
+        this.objectMapper = objectMapper;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * Saves a new user.
+     *
+     * @param role The role of the user.
+     * @return The saved user.
+     */
+    public User create(Role role) {
+        String email = "test" + USERS.incrementAndGet() + "@cards.com";
+        return userRepository.save(User.builder().firstname("first").lastname("last").email(email)
+                .password(passwordEncoder.encode(PASSWORD)).role(role).build());
+    }
+
+    /**
+     * Authenticates a user saved by {@link #create(Role)}.
+     *
+     * @param user The user.
+     * @return The value of the Authorization header carrying the access token of the user.
+     */
+    public String token(User user) throws Exception {
+        String body = mvc.perform(post("/api/open/auth/authenticate").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return "Bearer " + objectMapper.readTree(body).get("access_token").asText();
+    }
+}
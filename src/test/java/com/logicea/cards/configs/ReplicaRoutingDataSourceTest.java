@@ -0,0 +1,195 @@
+package com.logicea.cards.configs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.logicea.cards.CardsApplication;
+import com.logicea.cards.models.AuthorizationContext;
+import com.logicea.cards.models.Card;
+import com.logicea.cards.models.Role;
+import com.logicea.cards.models.Status;
+import com.logicea.cards.models.User;
+import com.logicea.cards.repositories.CardRepository;
+import com.logicea.cards.repositories.UserRepository;
+import com.logicea.cards.requests.SearchCardCriteriaDTO;
+import com.logicea.cards.services.CardService;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Routing between the in memory primary and the two in memory replicas of the {@code replicas-h2} profile.
+ * Nothing replicates between them, so the replicas only get the schema and the heartbeat the tests copy, and a card
+ * written to the primary is not found on the replicas: that tells which database served a search.
+ */
+@SpringBootTest(classes = CardsApplication.class)
+@ActiveProfiles({"h2", "replicas-h2"})
+class ReplicaRoutingDataSourceTest {
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private HikariDataSource primaryDataSource;
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+
+    private JdbcTemplate jdbcTemplate;
+    private String primaryName;
+    private final List<String> replicaNames = new ArrayList<>();
+
+    @BeforeEach
+    void resetReplicas() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        primaryName = databaseName(primary);
+        replicaNames.clear();
+        for (HikariDataSource replicaDataSource : replicaRoutingDataSource.replicas().values()) {
+            JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+            if (replica.queryForObject("SELECT COUNT(*) FROM information_schema.tables WHERE table_name = '_replica_heartbeat'", Integer.class) == 0) {
+                primary.queryForList("SCRIPT NODATA", String.class).stream()
+                        .filter(statement -> statement.startsWith("CREATE") && !statement.startsWith("CREATE USER"))
+                        .forEach(replica::execute);
+            }
+            replica.update("DELETE FROM _replica_heartbeat");
+            replicaNames.add(databaseName(replica));
+        }
+        replicaLagMonitor.check();
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsStayOnThePrimaryWhileTheReplicasLag() {
+        assertThat(readOnlyDatabaseNames(4)).containsOnly(primaryName);
+        assertThat(readWriteDatabaseName()).isEqualTo(primaryName);
+    }
+
+    @Test
+    void readOnlyTransactionsAreSpreadOverTheCaughtUpReplicas() {
+        replicateHeartbeat(0, 2);
+        replicaLagMonitor.check();
+
+        assertThat(readOnlyDatabaseNames(4)).containsExactlyInAnyOrder(
+                replicaNames.get(0), replicaNames.get(0), replicaNames.get(1), replicaNames.get(1));
+        assertThat(readWriteDatabaseName()).isEqualTo(primaryName);
+
+        new JdbcTemplate(replicaRoutingDataSource.replicas().get("cards-replica-2")).update("UPDATE _replica_heartbeat SET beat = 0");
+        replicaLagMonitor.check();
+
+        assertThat(readOnlyDatabaseNames(2)).containsOnly(replicaNames.get(0));
+    }
+
+    @Test
+    void searchesAreServedByTheReplicasOnceCaughtUp() {
+        User owner = userRepository.save(User.builder().firstname("Replica").lastname("Owner")
+                .email("replica-owner@cards.com").password("password").role(Role.ADMIN).build());
+        cardRepository.save(Card.builder().name("Primary only").creationDate(LocalDateTime.now()).status(Status.TODO).user(owner).build());
+        AuthorizationContext authContext = AuthorizationContext.of(owner);
+
+        assertThat(cardService.searchCards(new SearchCardCriteriaDTO(), authContext).getTotal()).isEqualTo(1);
+
+        replicateHeartbeat(0, 2);
+        replicaLagMonitor.check();
+        assertThat(cardService.searchCards(new SearchCardCriteriaDTO(), authContext).getTotal()).isZero();
+    }
+
+    @Test
+    void cachedCardsAreLoadedFromThePrimary() {
+        User owner = userRepository.save(User.builder().firstname("Cached").lastname("Owner")
+                .email("cached-owner@cards.com").password("password").role(Role.MEMBER).build());
+        Card card = cardRepository.save(Card.builder().name("Primary only").creationDate(LocalDateTime.now()).status(Status.TODO).user(owner).build());
+        replicateHeartbeat(0, 2);
+        replicaLagMonitor.check();
+
+        assertThat(cardService.readCard(card.getId(), AuthorizationContext.of(owner)).name()).isEqualTo("Primary only");
+        assertThat(readOnlyDatabaseNames(2)).doesNotContain(primaryName);
+    }
+
+    @Test
+    void usersReadTheirOwnWritesFromThePrimary() throws InterruptedException {
+        replicateHeartbeat(0, 2);
+        replicaLagMonitor.check();
+
+        authenticate(1);
+        TransactionTemplate rolledBack = new TransactionTemplate(transactionManager);
+        rolledBack.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            status.setRollbackOnly();
+        });
+        assertThat(readOnlyDatabaseNames(1)).doesNotContain(primaryName);
+
+        readWriteDatabaseName();
+        assertThat(readOnlyDatabaseNames(2)).containsOnly(primaryName);
+
+        authenticate(2);
+        assertThat(readOnlyDatabaseNames(1)).doesNotContain(primaryName);
+
+        authenticate(1);
+        Thread.sleep(1000);
+        assertThat(readOnlyDatabaseNames(1)).doesNotContain(primaryName);
+    }
+
+    /**
+     * Copies the heartbeat of the primary to the given replicas, as replication would.
+     */
+    private void replicateHeartbeat(int from, int to) {
+        replicaLagMonitor.check();
+        Long beat = new JdbcTemplate(primaryDataSource).queryForObject("SELECT beat FROM _replica_heartbeat WHERE id = 1", Long.class);
+        List<HikariDataSource> replicas = new ArrayList<>(replicaRoutingDataSource.replicas().values());
+        for (HikariDataSource replicaDataSource : replicas.subList(from, to)) {
+            JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+            replica.update("DELETE FROM _replica_heartbeat");
+            replica.update("INSERT INTO _replica_heartbeat (id, beat) VALUES (1, ?)", beat);
+        }
+    }
+
+    private List<String> readOnlyDatabaseNames(int transactions) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < transactions; i++) {
+            names.add(readOnly.execute(status -> databaseName(jdbcTemplate)));
+        }
+        return names;
+    }
+
+    private String readWriteDatabaseName() {
+        return new TransactionTemplate(transactionManager).execute(status -> databaseName(jdbcTemplate));
+    }
+
+    private static String databaseName(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    private static void authenticate(Integer userId) {
+        AuthorizationContext authContext = new AuthorizationContext(userId, "user" + userId + "@cards.com", Role.MEMBER);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(authContext, null, List.of()));
+    }
+}
@@ -0,0 +1,186 @@
+package com.logicea.cards.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logicea.cards.CardsApplication;
+import com.logicea.cards.TestUsers;
+import com.logicea.cards.models.Role;
+import com.logicea.cards.repositories.CardRepository;
+import com.logicea.cards.repositories.UserRepository;
+
+/**
+ * Entity tags and conditional requests of the card endpoints against the in memory database: reads answer
+ * {@code If-None-Match} with 304, writes honor {@code If-Match} with 412, and a write losing the race against another
+ * one is answered with 409.
+ */
+@SpringBootTest(classes = CardsApplication.class, properties = "cards.password.bcrypt-strength=4")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class CardControllerConditionalRequestsTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String owner;
+    private String other;
+    private int cardId;
+
+    @BeforeEach
+    void createCard() throws Exception {
+        TestUsers users = new TestUsers(mvc, objectMapper, userRepository, passwordEncoder);
+        owner = users.token(users.create(Role.MEMBER));
+        other = users.token(users.create(Role.MEMBER));
+        String body = mvc.perform(post("/api/private/cards").header(HttpHeaders.AUTHORIZATION, owner)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"card\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getContentAsString();
+        cardId = objectMapper.readTree(body).get("id").asInt();
+    }
+
+    @Test
+    void readIsNotModifiedWhileTheCardKeepsItsVersion() throws Exception {
+        // Version read from the database first, then from the card cache filled by the full read
+        mvc.perform(read(owner).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mvc.perform(read(owner))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+        mvc.perform(read(owner).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(update("renamed").header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        mvc.perform(read(owner).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.name").value("renamed"));
+    }
+
+    @Test
+    void conditionalReadOfAnotherUsersCardIsForbidden() throws Exception {
+        mvc.perform(read(other).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void updateRequiresTheCurrentStrongEntityTag() throws Exception {
+        mvc.perform(update("stale").header(HttpHeaders.IF_MATCH, "\"5\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+        mvc.perform(update("weak").header(HttpHeaders.IF_MATCH, "W/\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        mvc.perform(update("current").header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        mvc.perform(update("unconditional"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    void deleteRequiresTheCurrentStrongEntityTag() throws Exception {
+        mvc.perform(delete("/api/private/cards/" + cardId).header(HttpHeaders.AUTHORIZATION, owner)
+                        .header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+        mvc.perform(delete("/api/private/cards/" + cardId).header(HttpHeaders.AUTHORIZATION, owner)
+                        .header(HttpHeaders.IF_MATCH, "\"3\", \"0\""))
+                .andExpect(status().isOk());
+        mvc.perform(read(owner)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void searchIsNotModifiedUntilOneOfItsCardsChanges() throws Exception {
+        String eTag = mvc.perform(search())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"").endsWith("\"");
+        mvc.perform(search().header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(update("renamed")).andExpect(status().isOk());
+        String changed = mvc.perform(search().header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void updateLosingTheRaceAgainstAnotherWriteIsAConflict() throws Exception {
+        // The request joins a transaction which has already read the card when another writer commits its own update
+        transactionTemplate.executeWithoutResult(transaction -> {
+            cardRepository.findById(cardId).orElseThrow();
+            ExecutorService otherWriter = Executors.newSingleThreadExecutor();
+            try {
+                otherWriter.submit(() -> jdbcTemplate.update("UPDATE _card SET version = version + 1 WHERE id = ?", cardId)).get();
+                mvc.perform(update("late").header(HttpHeaders.IF_MATCH, "\"0\""))
+                        .andExpect(status().isConflict())
+                        .andExpect(jsonPath("$.error").value("The card was modified concurrently, read it again"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                otherWriter.shutdown();
+                transaction.setRollbackOnly();
+            }
+        });
+    }
+
+    private MockHttpServletRequestBuilder read(String token) {
+        return get("/api/private/cards/" + cardId).header(HttpHeaders.AUTHORIZATION, token);
+    }
+
+    private MockHttpServletRequestBuilder update(String name) {
+        return put("/api/private/cards").header(HttpHeaders.AUTHORIZATION, owner)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"cardId\":" + cardId + ",\"name\":\"" + name
+                        + "\",\"description\":\"description\",\"color\":\"#A1B2C3\",\"status\":\"DONE\"}");
+    }
+
+    private MockHttpServletRequestBuilder search() {
+        return get("/api/private/cards/search").header(HttpHeaders.AUTHORIZATION, owner)
+                .contentType(MediaType.APPLICATION_JSON).content("{}");
+    }
+}
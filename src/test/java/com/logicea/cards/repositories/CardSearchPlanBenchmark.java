@@ -0,0 +1,144 @@
+package com.logicea.cards.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.logicea.cards.models.Status;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the former {@code LIKE '%x%'} / {@code (:x IS NULL OR ...)} card search with the indexed search of
+ * {@link CardSearchRepository} on a seeded table, printing the plan and the average latency of both.
+ * Run with {@code mvn test -Pbenchmark -Dcards.benchmark.cards=1000000}.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CardSearchPlanBenchmark {
+    private static final int CARDS = Integer.getInteger("cards.benchmark.cards", 1_000_000);
+    private static final int USERS = Integer.getInteger("cards.benchmark.users", 1_000);
+    private static final int ITERATIONS = 20;
+    private static final String LEGACY_QUERY = """
+            SELECT * FROM cards.`_card` c
+            WHERE (CAST(?1 AS INTEGER) IS NULL OR c.user_id = ?1)
+            AND (CAST(?2 AS VARCHAR) IS NULL OR c.name LIKE CONCAT('%', ?2, '%'))
+            AND (CAST(?3 AS VARCHAR) IS NULL OR c.color LIKE CONCAT('%', ?3, '%'))
+            AND (CAST(?4 AS VARCHAR) IS NULL OR c.status LIKE CONCAT('%', ?4, '%'))
+            LIMIT 10""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CardRepository cardRepository;
+
+    @BeforeAll
+    void seed() {
+        long start = System.nanoTime();
+        jdbcTemplate.update("""
+                INSERT INTO _user (id, email, firstname, lastname, password, role)
+                SELECT "X", CONCAT('user', "X", '@cards.com'), 'first', 'last', 'password', 'MEMBER'
+                FROM SYSTEM_RANGE(1, ?)""", USERS);
+        jdbcTemplate.update("""
+                INSERT INTO _card (id, user_id, creation_date, color, description, name, status, version)
+                SELECT "X", MOD("X", ?) + 1, DATEADD('MINUTE', "X", TIMESTAMP '2023-01-01 00:00:00'),
+                  CASE MOD("X", 4) WHEN 0 THEN '#FF0000' WHEN 1 THEN '#00FF00' WHEN 2 THEN '#0000FF' ELSE NULL END,
+                  'description', CONCAT('card', "X"),
+                  CASE MOD("X", 3) WHEN 0 THEN 'TODO' WHEN 1 THEN 'INPROGRESS' ELSE 'DONE' END, 0
+                FROM SYSTEM_RANGE(1, ?)""", USERS, CARDS);
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Seeded {} cards of {} users in {} ms", CARDS, USERS, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Test
+    void memberByStatus() {
+        compare("member by status", new CardSearchFilter(42, null, null, Status.TODO, null));
+    }
+
+    @Test
+    void memberByNamePrefix() {
+        compare("member by name", new CardSearchFilter(42, "card1", null, null, null));
+    }
+
+    @Test
+    void memberByColor() {
+        compare("member by color", new CardSearchFilter(42, null, "#FF0000", null, null));
+    }
+
+    @Test
+    void adminByNamePrefix() {
+        compare("admin by name", new CardSearchFilter(null, "card4242", null, null, null));
+    }
+
+    private void compare(String scenario, CardSearchFilter filter) {
+        Object[] legacyArgs = {filter.userId(), filter.name(), filter.color(),
+                filter.status() == null ? null : filter.status().name()};
+        List<Object> indexedArgs = new ArrayList<>();
+        String indexedQuery = indexedQuery(filter, indexedArgs);
+        log.info("[{}] legacy plan:\n{}", scenario, plan(LEGACY_QUERY, legacyArgs));
+        log.info("[{}] indexed plan:\n{}", scenario, plan(indexedQuery, indexedArgs.toArray()));
+        double legacy = averageMillis(() -> jdbcTemplate.queryForList(LEGACY_QUERY, legacyArgs));
+        double indexed = averageMillis(() -> jdbcTemplate.queryForList(indexedQuery, indexedArgs.toArray()));
+        double repository = averageMillis(() -> cardRepository.searchCards(filter, PageRequest.of(0, 10, Sort.unsorted())).getContent());
+        log.info("[{}] over {} cards: legacy {} ms/query, indexed {} ms/query, repository page with count {} ms", scenario,
+                CARDS, String.format("%.3f", legacy), String.format("%.3f", indexed), String.format("%.3f", repository));
+    }
+
+    /**
+     * The statement issued by {@link CardSearchRepository#searchCards} for the page itself.
+     */
+    private static String indexedQuery(CardSearchFilter filter, List<Object> args) {
+        StringBuilder query = new StringBuilder("SELECT * FROM cards.`_card` c WHERE 1 = 1");
+        if (filter.userId() != null) {
+            query.append(" AND c.user_id = ?");
+            args.add(filter.userId());
+        }
+        if (filter.name() != null) {
+            query.append(" AND c.name LIKE ?");
+            args.add(filter.name() + "%");
+        }
+        if (filter.color() != null) {
+            query.append(" AND c.color = ?");
+            args.add(filter.color());
+        }
+        if (filter.status() != null) {
+            query.append(" AND c.status = ?");
+            args.add(filter.status().name());
+        }
+        return query.append(" LIMIT 10").toString();
+    }
+
+    private String plan(String query, Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class, args));
+    }
+
+    private static double averageMillis(Supplier<List<?>> query) {
+        for (int i = 0; i < 3; i++) {
+            query.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+}
@@ -0,0 +1,122 @@
+package com.logicea.cards.repositories;
+
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the former {@code IF(COUNT(..) > 0, 'true', 'false')} existence and email ownership checks with the
+ * {@code EXISTS} probes and the {@code user_id} ownership check of the repositories on a seeded table, printing the
+ * average latency per call of the former statement, of its replacement, and of the repository method issuing it.
+ * H2 has no {@code IF}, so the former statements use the equivalent {@code CASE WHEN COUNT(..) > 0}.
+ * Run with {@code mvn test -Pbenchmark -Dcards.benchmark.cards=1000000}.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExistenceQueryBenchmark {
+    private static final int CARDS = Integer.getInteger("cards.benchmark.cards", 1_000_000);
+    private static final int USERS = Integer.getInteger("cards.benchmark.users", 1_000);
+    private static final int ITERATIONS = 2_000;
+    private static final String LEGACY_EMAIL_EXISTS = """
+            SELECT CASE WHEN count(email) > 0 THEN 'true' ELSE 'false' END FROM cards.`_user` WHERE email = ?""";
+    private static final String EMAIL_EXISTS = """
+            SELECT EXISTS (SELECT 1 FROM cards.`_user` u WHERE u.email = ?)""";
+    private static final String LEGACY_CARD_BELONGS_TO_EMAIL = """
+            SELECT CASE WHEN count(c.id) > 0 THEN 'true' ELSE 'false' END FROM cards.`_card` c
+            JOIN cards.`_user` u ON c.user_id = u.id
+            WHERE c.id = ? AND u.email = ?""";
+    private static final String CARD_BELONGS_TO_USER = """
+            SELECT EXISTS (SELECT 1 FROM cards.`_card` c WHERE c.id = ? AND c.user_id = ?)""";
+    private static final String LEGACY_CARD_EXISTS = "SELECT count(*) > 0 FROM cards.`_card` c WHERE c.id = ?";
+    private static final String CARD_EXISTS = "SELECT EXISTS (SELECT 1 FROM cards.`_card` c WHERE c.id = ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+
+    @BeforeAll
+    void seed() {
+        long start = System.nanoTime();
+        jdbcTemplate.update("""
+                INSERT INTO _user (id, email, firstname, lastname, password, role)
+                SELECT "X", CONCAT('user', "X", '@cards.com'), 'first', 'last', 'password', 'MEMBER'
+                FROM SYSTEM_RANGE(1, ?)""", USERS);
+        jdbcTemplate.update("""
+                INSERT INTO _card (id, user_id, creation_date, color, description, name, status, version)
+                SELECT "X", MOD("X", ?) + 1, DATEADD('MINUTE', "X", TIMESTAMP '2023-01-01 00:00:00'),
+                  '#FF0000', 'description', CONCAT('card', "X"), 'TODO', 0
+                FROM SYSTEM_RANGE(1, ?)""", USERS, CARDS);
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Seeded {} cards of {} users in {} ms", CARDS, USERS, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Test
+    void emailExists() {
+        for (String email : new String[]{"user42@cards.com", "nobody@cards.com"}) {
+            compare("email exists " + email,
+                    () -> jdbcTemplate.queryForObject(LEGACY_EMAIL_EXISTS, Boolean.class, email),
+                    () -> jdbcTemplate.queryForObject(EMAIL_EXISTS, Boolean.class, email),
+                    () -> userRepository.emailExists(email));
+        }
+    }
+
+    @Test
+    void cardOwnership() {
+        // Card 4242 belongs to user 4242 % USERS + 1
+        int owner = 4242 % USERS + 1;
+        for (int userId : new int[]{owner, owner + 1}) {
+            compare("card 4242 belongs to user " + userId,
+                    () -> jdbcTemplate.queryForObject(LEGACY_CARD_BELONGS_TO_EMAIL, Boolean.class, 4242, "user" + userId + "@cards.com"),
+                    () -> jdbcTemplate.queryForObject(CARD_BELONGS_TO_USER, Boolean.class, 4242, userId),
+                    () -> cardRepository.findAccessibleCard(4242, userId, false).isPresent());
+        }
+    }
+
+    @Test
+    void cardExists() {
+        compare("card exists",
+                () -> jdbcTemplate.queryForObject(LEGACY_CARD_EXISTS, Boolean.class, 4242),
+                () -> jdbcTemplate.queryForObject(CARD_EXISTS, Boolean.class, 4242),
+                () -> cardRepository.cardExists(4242));
+    }
+
+    private void compare(String scenario, Supplier<Boolean> legacy, Supplier<Boolean> exists, Supplier<Boolean> repository) {
+        if (!legacy.get().equals(exists.get()) || !legacy.get().equals(repository.get())) {
+            throw new IllegalStateException(scenario + ": the answers differ");
+        }
+        log.info("[{}] over {} cards: count {} us/call, exists {} us/call, repository {} us/call", scenario, CARDS,
+                String.format("%.1f", averageMicros(legacy)), String.format("%.1f", averageMicros(exists)),
+                String.format("%.1f", averageMicros(repository)));
+    }
+
+    private static double averageMicros(Supplier<Boolean> query) {
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            query.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+    }
+}
@@ -0,0 +1,106 @@
+package com.logicea.cards.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.logicea.cards.CardsApplication;
+import com.logicea.cards.configs.SqlStatementCounter;
+import com.logicea.cards.exceptions.EmailAlreadyExist;
+import com.logicea.cards.models.Role;
+import com.logicea.cards.repositories.UserRepository;
+import com.logicea.cards.requests.RegisterUserDTO;
+
+/**
+ * Registration against the in memory database: concurrent registrations of the same email must leave exactly one user
+ * behind, and each registration must cost a single statement. Statements are counted by {@link SqlStatementCounter} on
+ * the registering threads only, so that the scheduled tasks running meanwhile do not add to them.
+ */
+@SpringBootTest(classes = CardsApplication.class, properties = "cards.password.bcrypt-strength=4")
+@ActiveProfiles("h2")
+class AuthenticationServiceRegistrationTest {
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_EMAIL = 4;
+    private static final int EMAILS = 5;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentRegistrationsCreateOneUserPerEmailInOneStatementEach() throws Exception {
+        // The pooled id optimizer reads the sequence for the first two ids only, so the registrations below draw their ids
+        // from memory
+        authenticationService.register(registration("warmup1@cards.com"));
+        authenticationService.register(registration("warmup2@cards.com"));
+        AtomicInteger statements = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int attempt = 0; attempt < ATTEMPTS_PER_EMAIL; attempt++) {
+            for (int email = 0; email < EMAILS; email++) {
+                RegisterUserDTO request = registration("user" + email + "@cards.com");
+                results.add(executor.submit(registerAfter(start, request, statements)));
+            }
+        }
+        start.countDown();
+        int succeeded = 0;
+        int duplicates = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            } else {
+                duplicates++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(succeeded).isEqualTo(EMAILS);
+        assertThat(duplicates).isEqualTo(EMAILS * (ATTEMPTS_PER_EMAIL - 1));
+        for (int email = 0; email < EMAILS; email++) {
+            assertThat(userRepository.findByEmail("user" + email + "@cards.com")).isPresent();
+        }
+        assertThat(userRepository.count()).isEqualTo(EMAILS + 2);
+        // One insert per attempt, the duplicates being refused by the unique index on the email
+        assertThat(statements.get()).isEqualTo(results.size());
+    }
+
+    private Callable<Boolean> registerAfter(CountDownLatch start, RegisterUserDTO request, AtomicInteger statements) {
+        return () -> {
+            start.await();
+            SqlStatementCounter.start();
+            try {
+                authenticationService.register(request);
+                return true;
+            } catch (EmailAlreadyExist e) {
+                return false;
+            } finally {
+                statements.addAndGet(SqlStatementCounter.stop());
+            }
+        };
+    }
+
+    private static RegisterUserDTO registration(String email) {
+        RegisterUserDTO request = new RegisterUserDTO();
+        request.setFirstname("first");
+        request.setLastname("last");
+        request.setEmail(email);
+        request.setPassword("password");
+        request.setRole(Role.MEMBER);
+        return request;
+    }
+}
@@ -0,0 +1,194 @@
+package com.logicea.cards.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logicea.cards.CardsApplication;
+import com.logicea.cards.TestUsers;
+import com.logicea.cards.models.AuthorizationContext;
+import com.logicea.cards.models.CardChange;
+import com.logicea.cards.models.Role;
+import com.logicea.cards.models.User;
+import com.logicea.cards.repositories.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Change feed streamed by {@code /api/private/cards/changes}, with a ring of 4 events: replay from the
+ * {@code Last-Event-ID} of a reconnecting subscriber, reset when the id is unknown, visibility of the changes and
+ * eviction of the subscribers which read too slowly.
+ */
+@SpringBootTest(classes = CardsApplication.class, properties = {
+        "cards.password.bcrypt-strength=4",
+        "cards.changes.replay-size=4"})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class CardChangeFeedTest {
+    private static final Duration DELIVERY_TIMEOUT = Duration.ofSeconds(5);
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private CardChangeFeed cardChangeFeed;
+
+    private TestUsers users;
+    private User owner;
+    private User other;
+
+    @BeforeEach
+    void createUsers() {
+        users = new TestUsers(mvc, objectMapper, userRepository, passwordEncoder);
+        owner = users.create(Role.MEMBER);
+        other = users.create(Role.MEMBER);
+    }
+
+    @Test
+    void reconnectingSubscriberReceivesTheEventsItMissed() throws Exception {
+        MvcResult stream = subscribe(owner, null);
+        cardChangeFeed.publish(CardChange.deleted(101, owner.getId()));
+        cardChangeFeed.publish(CardChange.deleted(102, owner.getId()));
+        List<String> ids = eventIds(awaitEvents(stream, 2));
+
+        cardChangeFeed.publish(CardChange.deleted(103, owner.getId()));
+        cardChangeFeed.publish(CardChange.deleted(104, owner.getId()));
+        String replayed = awaitEvents(subscribe(owner, ids.get(0)), 3);
+        assertThat(replayed).doesNotContain("\"cardId\":101").doesNotContain("event:reset")
+                .containsSubsequence("\"cardId\":102", "\"cardId\":103", "\"cardId\":104");
+    }
+
+    @Test
+    void reconnectingWithAnUnknownEventIdIsReset() throws Exception {
+        MvcResult stream = subscribe(owner, null);
+        cardChangeFeed.publish(CardChange.deleted(201, owner.getId()));
+        String lastEventId = eventIds(awaitEvents(stream, 1)).get(0);
+
+        // Issued before a restart
+        String epoch = lastEventId.substring(0, lastEventId.indexOf('-'));
+        assertThat(awaitEvents(subscribe(owner, "0" + epoch + "-1"), 1)).isEqualTo("event:reset\ndata:reset\n\n");
+        assertThat(awaitEvents(subscribe(owner, "invalid"), 1)).isEqualTo("event:reset\ndata:reset\n\n");
+
+        // Dropped from the ring of 4 events
+        for (int cardId = 202; cardId <= 206; cardId++) {
+            cardChangeFeed.publish(CardChange.deleted(cardId, owner.getId()));
+        }
+        assertThat(awaitEvents(subscribe(owner, lastEventId), 1)).isEqualTo("event:reset\ndata:reset\n\n");
+    }
+
+    @Test
+    void membersOnlyReceiveTheChangesOfTheirOwnCards() throws Exception {
+        User admin = users.create(Role.ADMIN);
+        MvcResult ownerStream = subscribe(owner, null);
+        MvcResult otherStream = subscribe(other, null);
+        MvcResult adminStream = subscribe(admin, null);
+        cardChangeFeed.publish(CardChange.deleted(300, owner.getId()));
+        cardChangeFeed.publish(CardChange.deleted(301, owner.getId()));
+        cardChangeFeed.publish(CardChange.deleted(302, other.getId()));
+
+        String ownerEvents = awaitEvents(ownerStream, 2);
+        String otherEvents = awaitEvents(otherStream, 1);
+        String adminEvents = awaitEvents(adminStream, 3);
+        assertThat(adminEvents).containsSubsequence("\"cardId\":300", "\"cardId\":301", "\"cardId\":302");
+        assertThat(ownerEvents).containsSubsequence("\"cardId\":300", "\"cardId\":301").doesNotContain("\"cardId\":302");
+        // Events are queued in order, so the changes of the owner would have come before the own change of the other user
+        assertThat(otherEvents).contains("\"cardId\":302").doesNotContain("\"cardId\":300").doesNotContain("\"cardId\":301");
+
+        // Nor when replayed
+        String replayed = awaitEvents(subscribe(other, eventIds(adminEvents).get(0)), 1);
+        assertThat(replayed).contains("\"cardId\":302").doesNotContain("\"cardId\":301");
+    }
+
+    @Test
+    void slowSubscriberIsEvictedWithoutHoldingTheOthers() throws Exception {
+        CardChangeFeed feed = new CardChangeFeed(objectMapper, 4, 2, 2, Duration.ofMinutes(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        feed.bindTo(meterRegistry);
+        AuthorizationContext authContext = new AuthorizationContext(owner.getId(), owner.getEmail(), owner.getRole());
+        SseEmitter slow = feed.subscribe(authContext, null);
+        SseEmitter fast = feed.subscribe(authContext, null);
+        try {
+            // Holding the lock of the slow stream blocks its writer in the middle of the first event, as a full socket would
+            synchronized (slow) {
+                for (int cardId = 401; cardId <= 404; cardId++) {
+                    feed.publish(CardChange.deleted(cardId, owner.getId()));
+                    // Leaves the writers the time to take the event, from the queue of the other subscriber at least
+                    Thread.sleep(100);
+                }
+                assertThat(meterRegistry.get("cards.changes.evictions").functionCounter().count()).isEqualTo(1);
+                assertThat(meterRegistry.get("cards.changes.subscribers").gauge().value()).isEqualTo(1);
+            }
+            // The other subscriber keeps receiving the changes
+            for (int cardId = 405; cardId <= 408; cardId++) {
+                feed.publish(CardChange.deleted(cardId, owner.getId()));
+                Thread.sleep(100);
+            }
+            assertThat(meterRegistry.get("cards.changes.evictions").functionCounter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("cards.changes.subscribers").gauge().value()).isEqualTo(1);
+        } finally {
+            fast.complete();
+            feed.destroy();
+        }
+    }
+
+    private MvcResult subscribe(User user, String lastEventId) throws Exception {
+        var request = get("/api/private/cards/changes").header(HttpHeaders.AUTHORIZATION, users.token(user))
+                .accept(MediaType.TEXT_EVENT_STREAM);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        MvcResult result = mvc.perform(request).andExpect(status().isOk()).andReturn();
+        assertThat(result.getRequest().isAsyncStarted()).isTrue();
+        return result;
+    }
+
+    /**
+     * Waits for the stream to contain the given number of events, heartbeats excluded.
+     *
+     * @return The content of the stream up to the end of its last complete event, as an event may be partly written.
+     */
+    private static String awaitEvents(MvcResult stream, int events) throws Exception {
+        long deadline = System.nanoTime() + DELIVERY_TIMEOUT.toNanos();
+        String content = completeEvents(stream);
+        while (content.lines().filter(line -> line.startsWith("data:")).count() < events) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Expected " + events + " events but received:\n" + stream.getResponse().getContentAsString());
+            }
+            Thread.sleep(10);
+            content = completeEvents(stream);
+        }
+        return content;
+    }
+
+    private static String completeEvents(MvcResult stream) throws Exception {
+        String content = stream.getResponse().getContentAsString();
+        int end = content.lastIndexOf("\n\n");
+        return end < 0 ? "" : content.substring(0, end + 2);
+    }
+
+    private static List<String> eventIds(String content) {
+        return content.lines().filter(line -> line.startsWith("id:")).map(line -> line.substring(3)).toList();
+    }
+}
@@ -0,0 +1,215 @@
+package com.logicea.cards.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.logicea.cards.CardsApplication;
+import com.logicea.cards.models.AuthorizationContext;
+import com.logicea.cards.models.Role;
+import com.logicea.cards.models.User;
+import com.logicea.cards.repositories.CardOutboxRepository;
+import com.logicea.cards.repositories.UserRepository;
+import com.logicea.cards.requests.CreateCardDTO;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures the transactional outbox on the in memory database: the cost of the outbox row on the write path, the
+ * throughput of the relay draining a backlog with several batch sizes, and the write throughput while the relay keeps
+ * up with the writers, printing changes or writes per second.
+ * H2 has no {@code SKIP LOCKED} and its {@code FOR UPDATE} locks every unsent row rather than the claimed ones, so the
+ * relay throughput is a lower bound of what InnoDB achieves with the {@code (sent_at, id)} index.
+ * Run with {@code mvn test -Pbenchmark -Dtest=CardOutboxRelayBenchmark -Dcards.benchmark.events=100000}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(classes = CardsApplication.class, properties = {
+        "cards.outbox.sink=memory",
+        "cards.outbox.poll-interval=PT1H"})
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CardOutboxRelayBenchmark {
+    private static final int EVENTS = Integer.getInteger("cards.benchmark.events", 100_000);
+    private static final int WRITES = 4_000;
+    private static final int ROUNDS = 10;
+    private static final int WRITER_THREADS = 4;
+    private static final Duration CONCURRENT_RUN = Duration.ofSeconds(10);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+    private static final String PAYLOAD = """
+            {"type":"UPDATED","cardId":42,"version":3,"card":{"id":42,"name":"Card 42","description":"Description of \
+            card 42","color":"#A1B2C3","creationDate":"2023-08-01T12:30:00","status":"IN_PROGRESS"}}""";
+
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private CardOutbox cardOutbox;
+    @Autowired
+    private CardOutboxRepository cardOutboxRepository;
+    @Autowired
+    private InMemoryCardEventSink sink;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private AuthorizationContext authContext;
+
+    @BeforeAll
+    void createUser() {
+        User user = userRepository.save(User.builder().firstname("first").lastname("last")
+                .email("outbox@cards.com").password("password").role(Role.MEMBER).build());
+        authContext = new AuthorizationContext(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    @Test
+    void writePath() {
+        averageMicros(WRITES, this::createCard);
+        // Alternates short runs without and with the outbox, so that both see the same table sizes and JIT state
+        double without = 0;
+        double with = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            ReflectionTestUtils.setField(cardOutbox, "enabled", false);
+            without += averageMicros(WRITES / ROUNDS, this::createCard) / ROUNDS;
+            ReflectionTestUtils.setField(cardOutbox, "enabled", true);
+            with += averageMicros(WRITES / ROUNDS, this::createCard) / ROUNDS;
+        }
+        log.info("[write path] createCard without outbox {} us/write, with outbox {} us/write",
+                String.format("%.1f", without), String.format("%.1f", with));
+        drain(relay(500));
+    }
+
+    @Test
+    void relayThroughput() {
+        for (int batchSize : new int[]{100, 500, 1000}) {
+            CardOutboxRelay relay = relay(batchSize);
+            drain(relay);
+            sink.clear();
+            seed(EVENTS);
+            long start = System.nanoTime();
+            drain(relay);
+            long elapsed = System.nanoTime() - start;
+            if (sink.size() != EVENTS) {
+                throw new IllegalStateException("Relayed " + sink.size() + " of " + EVENTS + " changes");
+            }
+            log.info("[relay] {} changes by batches of {} in {} ms: {} changes/s", EVENTS, batchSize, elapsed / 1_000_000,
+                    String.format("%.0f", EVENTS * 1e9 / elapsed));
+        }
+    }
+
+    @Test
+    void writesWhileRelaying() throws Exception {
+        // Warm up, then measure the writers alone and with the relay, each time from an empty outbox
+        writesPerSecond(null);
+        drain(relay(500));
+        double alone = writesPerSecond(null);
+        drain(relay(500));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CardOutboxRelay relay = new CardOutboxRelay(cardOutboxRepository, sink, transactionTemplate, 500, 20,
+                Duration.ofDays(7), POLL_INTERVAL, Duration.ofHours(1), meterRegistry);
+        double relaying = writesPerSecond(relay);
+        Timer lag = meterRegistry.get("cards.outbox.lag").timer();
+        log.info("[concurrent] {} writers: {} writes/s alone, {} writes/s while relaying every {} ms with a mean lag of {} ms",
+                WRITER_THREADS, String.format("%.0f", alone), String.format("%.0f", relaying), POLL_INTERVAL.toMillis(),
+                String.format("%.0f", lag.mean(TimeUnit.MILLISECONDS)));
+    }
+
+    /**
+     * Writes cards from several threads for {@link #CONCURRENT_RUN}, with the relay polling in the background if given.
+     */
+    private double writesPerSecond(CardOutboxRelay relay) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITER_THREADS + 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<Integer>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITER_THREADS; i++) {
+            writers.add(executor.submit(() -> {
+                int writes = 0;
+                while (running.get()) {
+                    createCard();
+                    writes++;
+                }
+                return writes;
+            }));
+        }
+        Future<?> poller = relay == null ? null : executor.submit(() -> {
+            while (running.get()) {
+                relay.relay();
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+            return null;
+        });
+        Thread.sleep(CONCURRENT_RUN.toMillis());
+        running.set(false);
+        int writes = 0;
+        for (Future<Integer> writer : writers) {
+            writes += writer.get();
+        }
+        if (poller != null) {
+            poller.get();
+        }
+        executor.shutdown();
+        return writes / (double) CONCURRENT_RUN.toSeconds();
+    }
+
+    private void createCard() {
+        CreateCardDTO dto = new CreateCardDTO();
+        dto.setName("card");
+        dto.setDescription("description");
+        dto.setColor("#A1B2C3");
+        cardService.createCard(dto, authContext);
+    }
+
+    /**
+     * Inserts unsent changes in a single statement, with ids above those drawn from the sequence by the writes.
+     */
+    private void seed(int events) {
+        long start = System.nanoTime();
+        Long firstId = jdbcTemplate.queryForObject("SELECT GREATEST(COALESCE(MAX(id), 0), 1000000000) FROM _card_outbox", Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO _card_outbox (id, type, card_id, owner_id, payload, created_at)
+                SELECT ? + "X", 'UPDATED', "X", 1, ?, CURRENT_TIMESTAMP
+                FROM SYSTEM_RANGE(1, ?)""", firstId, PAYLOAD, events);
+        log.info("Seeded {} changes in {} ms", events, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private CardOutboxRelay relay(int batchSize) {
+        return new CardOutboxRelay(cardOutboxRepository, sink, transactionTemplate, batchSize, Integer.MAX_VALUE,
+                Duration.ofDays(7), POLL_INTERVAL, Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+
+    private static void drain(CardOutboxRelay relay) {
+        while (relay.relayBatch() > 0) {
+        }
+    }
+
+    private static double averageMicros(int iterations, Runnable write) {
+        for (int i = 0; i < iterations / 10; i++) {
+            write.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            write.run();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / iterations;
+    }
+}